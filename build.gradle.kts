@@ -6,12 +6,16 @@ plugins {
     `java-library`
 
     id("com.github.johnrengelman.shadow") version "8.1.1"
+    id("me.champeau.jmh") version "0.7.2"
 
 	// auto update dependencies with 'useLatestVersions' task
 	id("se.patrikerdes.use-latest-versions") version "0.2.18"
 	id("com.github.ben-manes.versions") version "0.52.0"
 }
 
+// runtime for headless batch driver and rename daemon (plugin itself gets jadx from host)
+val batchRuntime: Configuration by configurations.creating
+
 dependencies {
 	val jadxVersion = "1.5.1"
 	val isJadxSnapshot = jadxVersion.endsWith("-SNAPSHOT")
@@ -31,6 +35,23 @@ dependencies {
 	testImplementation("org.assertj:assertj-core:3.27.3")
 	testImplementation("org.junit.jupiter:junit-jupiter:5.12.1")
 	testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+
+	// benchmarks run outside of jadx host, so provide jadx-core directly
+	jmhImplementation("io.github.skylot:jadx-core:$jadxVersion") {
+        isChanging = isJadxSnapshot
+    }
+	jmhRuntimeOnly("io.github.skylot:jadx-smali-input:$jadxVersion") {
+        isChanging = isJadxSnapshot
+    }
+	jmhRuntimeOnly("ch.qos.logback:logback-classic:1.5.18")
+
+	batchRuntime("io.github.skylot:jadx-core:$jadxVersion") {
+        isChanging = isJadxSnapshot
+    }
+	batchRuntime("io.github.skylot:jadx-dex-input:$jadxVersion") {
+        isChanging = isJadxSnapshot
+    }
+	batchRuntime("ch.qos.logback:logback-classic:1.5.18")
 }
 
 repositories {
@@ -64,9 +85,35 @@ tasks {
         from(shadowJar)
         into(layout.buildDirectory.dir("dist"))
     }
+
+    // rename many inputs in one JVM, e.g.:
+    // ./gradlew batchRename --args="--jobs 2 out/ apks/"
+    register<JavaExec>("batchRename") {
+		group = "jadx-plugin"
+        classpath = sourceSets.main.get().runtimeClasspath + batchRuntime
+        mainClass.set("jadx.plugins.googlehelpers.BatchRenamer")
+    }
+
+    // keep one input loaded and answer rename queries on localhost, e.g.:
+    // ./gradlew renameDaemon --args="--port 7850 app.apk"
+    register<JavaExec>("renameDaemon") {
+		group = "jadx-plugin"
+        classpath = sourceSets.main.get().runtimeClasspath + batchRuntime
+        mainClass.set("jadx.plugins.googlehelpers.RenameDaemon")
+    }
 }
 
 
+jmh {
+	// run with: ./gradlew jmh -PjmhIncludes=CallMatcher
+	includes.set(listOfNotNull(project.findProperty("jmhIncludes") as String?))
+	includeTests.set(false)
+	fork.set(1)
+	warmupIterations.set(3)
+	iterations.set(5)
+	profilers.set(listOf("gc"))
+}
+
 tasks.named<DependencyUpdatesTask>("dependencyUpdates") {
 	rejectVersionIf {
 		// disallow release candidates as upgradable versions from stable versions
@@ -0,0 +1,123 @@
+package jadx.plugins.googlehelpers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import jadx.api.JadxArgs;
+import jadx.core.dex.info.ClassInfo;
+import jadx.core.dex.info.MethodInfo;
+import jadx.core.dex.instructions.args.ArgType;
+import jadx.core.dex.nodes.RootNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Invoke matching: string based matching (as done before compiled matchers) vs {@link CallMatcher}.
+ * Run with gc profiler to compare allocation rate: ./gradlew jmh -PjmhIncludes=CallMatcher
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CallMatcherBenchmark {
+    private static final String FACTORY = "com/google/common/flogger/GoogleLogger->c(Ljava/lang/String;)Lcom/google/common/flogger/GoogleLogger;";
+    private static final String LOCATION = "com/google/common/flogger/LoggingApi->a(Ljava/lang/String;Ljava/lang/String;ILjava/lang/String;)Lcom/google/common/flogger/LoggingApi;";
+    private static final int CALLS = 4096;
+
+    private MethodInfo[] calls;
+    private RenameFromLogsPass.MethodRef factoryRef;
+    private RenameFromLogsPass.MethodRef locationRef;
+    private CallMatcher factoryMatcher;
+    private CallMatcher locationMatcher;
+
+    @Setup
+    public void setup() {
+        RootNode root = new RootNode(new JadxArgs());
+        factoryRef = RenameFromLogsPass.MethodRef.parse(FACTORY);
+        locationRef = RenameFromLogsPass.MethodRef.parse(LOCATION);
+        factoryMatcher = CallMatcher.exact(root, factoryRef);
+        locationMatcher = CallMatcher.withSubtypes(root, locationRef);
+
+        MethodInfo factoryCall = methodInfo(root, "com.google.common.flogger.GoogleLogger", "c",
+                List.of(ArgType.STRING), ArgType.object("com.google.common.flogger.GoogleLogger"));
+        MethodInfo locationCall = methodInfo(root, "com.google.common.flogger.LoggingApi", "a",
+                List.of(ArgType.STRING, ArgType.STRING, ArgType.INT, ArgType.STRING),
+                ArgType.object("com.google.common.flogger.LoggingApi"));
+        // typical obfuscated app: short method names, so many calls share names with logger methods
+        String[] names = { "a", "b", "c", "d", "e" };
+        List<List<ArgType>> argLists = List.of(
+                List.of(),
+                List.of(ArgType.STRING),
+                List.of(ArgType.INT, ArgType.STRING),
+                List.of(ArgType.STRING, ArgType.STRING, ArgType.INT, ArgType.STRING));
+        Random rnd = new Random(42);
+        List<MethodInfo> list = new ArrayList<>(CALLS);
+        for (int i = 0; i < CALLS; i++) {
+            int kind = rnd.nextInt(100);
+            if (kind == 0) {
+                list.add(factoryCall);
+            } else if (kind == 1) {
+                list.add(locationCall);
+            } else {
+                String owner = "a.b" + rnd.nextInt(50) + ".C" + rnd.nextInt(200);
+                list.add(methodInfo(root, owner, names[rnd.nextInt(names.length)],
+                        argLists.get(rnd.nextInt(argLists.size())), ArgType.VOID));
+            }
+        }
+        calls = list.toArray(new MethodInfo[0]);
+    }
+
+    private static MethodInfo methodInfo(RootNode root, String owner, String name, List<ArgType> args, ArgType ret) {
+        return MethodInfo.fromDetails(root, ClassInfo.fromName(root, owner), name, args, ret);
+    }
+
+    @Benchmark
+    public int stringMatching() {
+        int found = 0;
+        for (MethodInfo call : calls) {
+            if (stringFactoryMatch(call, factoryRef)) found++;
+            if (stringLocationMatch(call, locationRef)) found++;
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int compiledMatching() {
+        int found = 0;
+        for (MethodInfo call : calls) {
+            if (factoryMatcher.matches(call)) found++;
+            if (locationMatcher.matches(call)) found++;
+        }
+        return found;
+    }
+
+    // string comparisons used before compiled matchers, kept here as the baseline
+    private static boolean stringFactoryMatch(MethodInfo call, RenameFromLogsPass.MethodRef ref) {
+        if (!call.getDeclClass().getFullName().equals(ref.ownerDot)) return false;
+        if (!call.getName().equals(ref.name)) return false;
+        if (!ref.hasSignature) return true;
+        StringBuilder sb = new StringBuilder();
+        sb.append(ref.name).append('(');
+        for (String a : ref.argTypes) sb.append(a);
+        sb.append(')').append(ref.retType);
+        return call.getShortId().equals(sb.toString());
+    }
+
+    private static boolean stringLocationMatch(MethodInfo call, RenameFromLogsPass.MethodRef ref) {
+        if (!call.getName().equals(ref.name)) return false;
+        String shortId = call.getShortId();
+        int parenOpen = shortId.indexOf('(');
+        int parenClose = shortId.indexOf(')');
+        if (parenOpen <= 0 || parenClose <= parenOpen) return false;
+        String callArgs = shortId.substring(parenOpen + 1, parenClose);
+        String expectedArgs = String.join("", ref.argTypes);
+        if (!callArgs.equals(expectedArgs)) return false;
+        return call.getDeclClass().getFullName().equals(ref.ownerDot);
+    }
+}
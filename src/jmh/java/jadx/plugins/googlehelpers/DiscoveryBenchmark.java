@@ -0,0 +1,55 @@
+package jadx.plugins.googlehelpers;
+
+import java.util.concurrent.TimeUnit;
+
+import jadx.core.dex.nodes.RootNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Logger methods discovery on generated corpora: ./gradlew jmh -PjmhIncludes=DiscoveryBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DiscoveryBenchmark {
+
+    @Param({ "100", "1000", "5000" })
+    public int classes;
+
+    private SmaliCorpus corpus;
+    private RootNode root;
+
+    @Setup
+    public void setup() throws Exception {
+        corpus = SmaliCorpus.load(classes);
+        root = corpus.getDecompiler().getRoot();
+    }
+
+    @TearDown
+    public void tearDown() {
+        corpus.close();
+    }
+
+    @Benchmark
+    public RenameFromLogsPass.MethodRef discoverGoogleLoggerFactory() {
+        return RenameFromLogsPass.discoverGoogleLoggerFactory(root);
+    }
+
+    @Benchmark
+    public RenameFromLogsPass.MethodRef discoverILoggerSetLocation() {
+        return RenameFromLogsPass.discoverILoggerSetLocation(root);
+    }
+
+    @Benchmark
+    public FloggerFingerprint fingerprintSearch() {
+        return FloggerFingerprint.search(root);
+    }
+}
@@ -0,0 +1,30 @@
+package jadx.plugins.googlehelpers;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Parsing of method refs from options: ./gradlew jmh -PjmhIncludes=MethodRefParse
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MethodRefParseBenchmark {
+    private final String factoryRef = SmaliCorpus.FACTORY_REF;
+    private final String locationRef = SmaliCorpus.LOCATION_REF;
+    private final String shortRef = "o/Api.a";
+
+    @Benchmark
+    public void parse(Blackhole bh) {
+        bh.consume(RenameFromLogsPass.MethodRef.parse(factoryRef));
+        bh.consume(RenameFromLogsPass.MethodRef.parse(locationRef));
+        bh.consume(RenameFromLogsPass.MethodRef.parse(shortRef));
+    }
+}
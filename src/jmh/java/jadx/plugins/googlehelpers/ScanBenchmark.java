@@ -0,0 +1,66 @@
+package jadx.plugins.googlehelpers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import jadx.core.dex.nodes.ClassNode;
+import jadx.core.dex.nodes.MethodNode;
+import jadx.core.dex.nodes.RootNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Method scan as done by auto-rename over all methods of generated corpora.
+ * Methods are unloaded after each scan, so every iteration includes raw prefilter and decoding,
+ * like a real after-load pass: ./gradlew jmh -PjmhIncludes=ScanBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ScanBenchmark {
+
+    @Param({ "100", "1000", "5000" })
+    public int classes;
+
+    private SmaliCorpus corpus;
+    private CallPatterns patterns;
+    private MethodNode[] methods;
+
+    @Setup
+    public void setup() throws Exception {
+        corpus = SmaliCorpus.load(classes);
+        RootNode root = corpus.getDecompiler().getRoot();
+        patterns = CallPatterns.of(
+                RenameFromLogsPass.compileFactory(root, RenameFromLogsPass.discoverGoogleLoggerFactory(root)),
+                RenameFromLogsPass.compileLocation(root, RenameFromLogsPass.discoverILoggerSetLocation(root)));
+        List<MethodNode> list = new ArrayList<>();
+        for (ClassNode cls : root.getClasses()) {
+            list.addAll(cls.getMethods());
+        }
+        methods = list.toArray(new MethodNode[0]);
+    }
+
+    @TearDown
+    public void tearDown() {
+        corpus.close();
+    }
+
+    @Benchmark
+    public int scanMethodForRename() {
+        int found = 0;
+        for (MethodNode mth : methods) {
+            ClassScanResult result = new ClassScanResult(mth.getParentClass());
+            RenameFromLogsPass.scanMethodForRename(mth, patterns, result, true);
+            found += result.getClassName() != null ? 1 : 0;
+        }
+        return found;
+    }
+}
@@ -0,0 +1,167 @@
+package jadx.plugins.googlehelpers;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import jadx.api.JadxArgs;
+import jadx.api.JadxDecompiler;
+
+/**
+ * Generated smali input shaped like an obfuscated Google app: minimal Flogger classes,
+ * an obfuscated logging API interface and {@code classes} app classes.
+ * Every third class has a logger created in {@code <clinit>} and methods calling setLocation-like method,
+ * all classes get plain filler methods with unrelated invokes.
+ */
+final class SmaliCorpus implements AutoCloseable {
+    static final String FACTORY_REF = "com/google/common/flogger/GoogleLogger->c(Ljava/lang/String;)Lcom/google/common/flogger/GoogleLogger;";
+    static final String LOCATION_REF = "o/Api->a(Ljava/lang/String;Ljava/lang/String;ILjava/lang/String;)Lo/Api;";
+
+    private static final int LOGGING_METHODS = 2;
+    private static final int FILLER_METHODS = 6;
+
+    private final Path dir;
+    private final JadxDecompiler jadx;
+
+    private SmaliCorpus(Path dir, JadxDecompiler jadx) {
+        this.dir = dir;
+        this.jadx = jadx;
+    }
+
+    static SmaliCorpus load(int classes) throws IOException {
+        Path dir = Files.createTempDirectory("google-helpers-corpus");
+        List<File> files = new ArrayList<>();
+        files.add(write(dir, "AbstractLogger", abstractLogger()));
+        files.add(write(dir, "GoogleLogger", googleLogger()));
+        files.add(write(dir, "Api", loggingApi()));
+        for (int i = 0; i < classes; i++) {
+            files.add(write(dir, "C" + i, appClass(i)));
+        }
+        JadxArgs args = new JadxArgs();
+        args.setInputFiles(files);
+        args.setSkipResources(true);
+        args.setThreadsCount(1);
+        args.setDisabledPlugins(Set.of(GoogleHelpersPlugin.PLUGIN_ID)); // benchmarks call the code directly
+        JadxDecompiler jadx = new JadxDecompiler(args);
+        jadx.load();
+        return new SmaliCorpus(dir, jadx);
+    }
+
+    JadxDecompiler getDecompiler() {
+        return jadx;
+    }
+
+    @Override
+    public void close() {
+        jadx.close();
+        try (Stream<Path> walk = Files.walk(dir)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static File write(Path dir, String name, String code) throws IOException {
+        Path file = dir.resolve(name + ".smali");
+        Files.write(file, code.getBytes(StandardCharsets.UTF_8));
+        return file.toFile();
+    }
+
+    private static String abstractLogger() {
+        return ".class public abstract Lcom/google/common/flogger/AbstractLogger;\n"
+                + ".super Ljava/lang/Object;\n\n"
+                + ".method public constructor <init>()V\n"
+                + "    .registers 1\n"
+                + "    invoke-direct {p0}, Ljava/lang/Object;-><init>()V\n"
+                + "    return-void\n"
+                + ".end method\n\n"
+                + ".method public abstract a(Ljava/util/logging/Level;)Lo/Api;\n"
+                + ".end method\n";
+    }
+
+    private static String googleLogger() {
+        return ".class public abstract Lcom/google/common/flogger/GoogleLogger;\n"
+                + ".super Lcom/google/common/flogger/AbstractLogger;\n\n"
+                + ".method public static c(Ljava/lang/String;)Lcom/google/common/flogger/GoogleLogger;\n"
+                + "    .registers 2\n"
+                + "    const/4 v0, 0x0\n"
+                + "    return-object v0\n"
+                + ".end method\n";
+    }
+
+    private static String loggingApi() {
+        return ".class public interface abstract Lo/Api;\n"
+                + ".super Ljava/lang/Object;\n\n"
+                + ".method public abstract a(Ljava/lang/String;Ljava/lang/String;ILjava/lang/String;)Lo/Api;\n"
+                + ".end method\n\n"
+                + ".method public abstract b(Ljava/lang/String;)V\n"
+                + ".end method\n";
+    }
+
+    private static String appClass(int i) {
+        String type = "Lo/a/C" + i + ";";
+        String origName = "com/example/feature" + (i % 40) + "/Widget" + i;
+        boolean logging = i % 3 == 0;
+        StringBuilder sb = new StringBuilder();
+        sb.append(".class public final ").append(type).append('\n');
+        sb.append(".super Ljava/lang/Object;\n\n");
+        if (logging) {
+            sb.append(".field private static final a:Lcom/google/common/flogger/GoogleLogger;\n\n");
+            sb.append(".method static constructor <clinit>()V\n")
+                    .append("    .registers 1\n")
+                    .append("    const-string v0, \"").append(origName).append("\"\n")
+                    .append("    invoke-static {v0}, Lcom/google/common/flogger/GoogleLogger;->c(Ljava/lang/String;)Lcom/google/common/flogger/GoogleLogger;\n")
+                    .append("    move-result-object v0\n")
+                    .append("    sput-object v0, ").append(type).append("->a:Lcom/google/common/flogger/GoogleLogger;\n")
+                    .append("    return-void\n")
+                    .append(".end method\n\n");
+        }
+        sb.append(".method public constructor <init>()V\n")
+                .append("    .registers 1\n")
+                .append("    invoke-direct {p0}, Ljava/lang/Object;-><init>()V\n")
+                .append("    return-void\n")
+                .append(".end method\n\n");
+        if (logging) {
+            for (int m = 0; m < LOGGING_METHODS; m++) {
+                sb.append(".method public m").append(m).append("(I)I\n")
+                        .append("    .registers 7\n")
+                        .append("    sget-object v0, ").append(type).append("->a:Lcom/google/common/flogger/GoogleLogger;\n")
+                        .append("    sget-object v1, Ljava/util/logging/Level;->INFO:Ljava/util/logging/Level;\n")
+                        .append("    invoke-virtual {v0, v1}, Lcom/google/common/flogger/AbstractLogger;->a(Ljava/util/logging/Level;)Lo/Api;\n")
+                        .append("    move-result-object v0\n")
+                        .append("    const-string v1, \"").append(origName).append("\"\n")
+                        .append("    const-string v2, \"doWork").append(m).append("\"\n")
+                        .append("    const/16 v3, 0x").append(Integer.toHexString(10 + m)).append('\n')
+                        .append("    const-string v4, \"Widget").append(i).append(".java\"\n")
+                        .append("    invoke-interface {v0, v1, v2, v3, v4}, Lo/Api;->a(Ljava/lang/String;Ljava/lang/String;ILjava/lang/String;)Lo/Api;\n")
+                        .append("    move-result-object v0\n")
+                        .append("    const-string v1, \"message ").append(m).append("\"\n")
+                        .append("    invoke-interface {v0, v1}, Lo/Api;->b(Ljava/lang/String;)V\n")
+                        .append("    add-int/lit8 v0, p1, 0x1\n")
+                        .append("    return v0\n")
+                        .append(".end method\n\n");
+            }
+        }
+        for (int m = 0; m < FILLER_METHODS; m++) {
+            sb.append(".method public f").append(m).append("(II)I\n")
+                    .append("    .registers 5\n")
+                    .append("    add-int v0, p1, p2\n")
+                    .append("    mul-int/lit8 v1, v0, 0x").append(Integer.toHexString(3 + m)).append('\n')
+                    .append("    invoke-static {v1}, Ljava/lang/Integer;->valueOf(I)Ljava/lang/Integer;\n")
+                    .append("    move-result-object v0\n")
+                    .append("    invoke-virtual {v0}, Ljava/lang/Integer;->hashCode()I\n")
+                    .append("    move-result v0\n")
+                    .append("    return v0\n")
+                    .append(".end method\n\n");
+        }
+        return sb.toString();
+    }
+}
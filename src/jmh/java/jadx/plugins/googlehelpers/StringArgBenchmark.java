@@ -0,0 +1,115 @@
+package jadx.plugins.googlehelpers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import jadx.core.dex.instructions.InvokeNode;
+import jadx.core.dex.nodes.ClassNode;
+import jadx.core.dex.nodes.InsnNode;
+import jadx.core.dex.nodes.MethodNode;
+import jadx.core.dex.nodes.RootNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * String argument extraction at logger call sites found in generated corpora.
+ * Methods stay loaded, so only resolution of constant strings is measured:
+ * ./gradlew jmh -PjmhIncludes=StringArgBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StringArgBenchmark {
+
+    @Param({ "100", "1000", "5000" })
+    public int classes;
+
+    private SmaliCorpus corpus;
+    private CallSite[] sites;
+
+    @Setup
+    public void setup() throws Exception {
+        corpus = SmaliCorpus.load(classes);
+        RootNode root = corpus.getDecompiler().getRoot();
+        CallMatcher factory = RenameFromLogsPass.compileFactory(root, RenameFromLogsPass.discoverGoogleLoggerFactory(root));
+        CallMatcher location = RenameFromLogsPass.compileLocation(root, RenameFromLogsPass.discoverILoggerSetLocation(root));
+        CallMatcher[] matchers = CallPatterns.of(factory, location).getMatchers();
+        List<CallSite> list = new ArrayList<>();
+        for (ClassNode cls : root.getClasses()) {
+            for (MethodNode mth : cls.getMethods()) {
+                if (!RawInvokeFilter.mayCall(mth, matchers)) {
+                    continue;
+                }
+                mth.load();
+                InsnNode[] insns = mth.getInstructions();
+                if (insns == null) {
+                    continue;
+                }
+                StringArgResolver resolver = StringArgResolver.forMethod(mth, insns);
+                for (int i = 0; i < insns.length; i++) {
+                    InsnNode insn = insns[i];
+                    if (insn instanceof InvokeNode) {
+                        InvokeNode inv = (InvokeNode) insn;
+                        if (factory.matches(inv.getCallMth()) || location.matches(inv.getCallMth())) {
+                            list.add(new CallSite(mth, inv, i, insns, resolver));
+                        }
+                    }
+                }
+            }
+        }
+        sites = list.toArray(new CallSite[0]);
+        if (sites.length == 0) {
+            throw new IllegalStateException("No logger call sites in corpus");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        corpus.close();
+    }
+
+    /**
+     * Fresh resolver per call site: includes building reaching definitions of the method.
+     */
+    @Benchmark
+    public void resolveCold(Blackhole bh) {
+        for (CallSite site : sites) {
+            bh.consume(StringArgResolver.forMethod(site.mth, site.insns).resolve(site.inv, 0, site.pos));
+        }
+    }
+
+    /**
+     * One resolver per method as in the scan, repeated calls in the same method hit the memo.
+     */
+    @Benchmark
+    public void resolveMemoized(Blackhole bh) {
+        for (CallSite site : sites) {
+            bh.consume(site.resolver.resolve(site.inv, 0, site.pos));
+        }
+    }
+
+    private static final class CallSite {
+        final MethodNode mth;
+        final InvokeNode inv;
+        final int pos;
+        final InsnNode[] insns;
+        final StringArgResolver resolver; // shared by sites of the same method
+
+        CallSite(MethodNode mth, InvokeNode inv, int pos, InsnNode[] insns, StringArgResolver resolver) {
+            this.mth = mth;
+            this.inv = inv;
+            this.pos = pos;
+            this.insns = insns;
+            this.resolver = resolver;
+        }
+    }
+}
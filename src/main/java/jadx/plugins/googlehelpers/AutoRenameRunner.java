@@ -0,0 +1,498 @@
+package jadx.plugins.googlehelpers;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import jadx.core.dex.nodes.ClassNode;
+import jadx.core.dex.nodes.ProcessState;
+import jadx.core.dex.nodes.RootNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Auto-rename over all classes: scan (optionally in parallel), then apply proposals in class order.
+ * Scanning never modifies nodes, so sequential and parallel runs produce the same renames.
+ * Class names found for several classes are made unique by {@link ClassNameIndex} before applying.
+ * <p>
+ * With a rename map of a previous app version, classes are matched by {@link ClassHasher} structural hash
+ * and unchanged ones take the previous renames instead of being scanned.
+ * <p>
+ * If jadx can decompile classes during the scan (background scan in jadx-gui), see {@link #setConcurrentDecompile}.
+ */
+final class AutoRenameRunner {
+    private static final Logger LOG = LoggerFactory.getLogger(AutoRenameRunner.class);
+
+    // classes per leaf task, small enough to balance big and tiny classes between workers
+    private static final int BATCH_SIZE = 64;
+
+    private final CallPatterns patterns;
+    private final boolean unloadAfterScan;
+    private final RenameMetrics metrics;
+    private final ScanResultCache scanCache; // null to always scan
+    private UsageIndex usage; // for current run, null to scan all methods
+    private ClassScanResult[] results = new ClassScanResult[0];
+    private ClassNameIndex names; // found class names of current run, null before first scan
+    private RenameProgress progress = new RenameProgress();
+    private boolean hashClasses; // store structural hashes in rename map
+    private RenameMap previous; // renames of previous app version, null if none
+    private Predicate<ClassNode> shard; // classes of this worker in sharded scan, null for all
+    private ScanBudget budget = ScanBudget.UNLIMITED;
+    private boolean measureRetainedHeap; // full GC around the scan for heap metrics
+    private Queue<Integer> deferred = new ConcurrentLinkedQueue<>(); // results with methods over budget
+    private final AtomicInteger classesSkipped = new AtomicInteger(); // not scanned before the deadline
+    private boolean concurrentDecompile; // jadx can process classes during the scan
+    private final AtomicInteger classesBusy = new AtomicInteger(); // processed by jadx before scanned, no result
+    private boolean complete = true; // nothing skipped by deadline in last scan
+    private ClassHasher hasher; // for current run, null if hashes are not needed
+    private Map<Long, RenameMap.ClassEntry> previousByHash = Collections.emptyMap();
+    // reused previous entries of current run by hash, same hash reused twice means a rescan
+    private Map<Long, Integer> reusedByHash = new ConcurrentHashMap<>();
+    private Set<Integer> reuseConflicts = ConcurrentHashMap.newKeySet();
+
+    AutoRenameRunner(CallPatterns patterns, boolean unloadAfterScan, RenameMetrics metrics, ScanResultCache scanCache) {
+        this.patterns = patterns;
+        this.unloadAfterScan = unloadAfterScan;
+        this.metrics = metrics;
+        this.scanCache = scanCache;
+    }
+
+    void setProgress(RenameProgress progress) {
+        this.progress = progress;
+    }
+
+    /**
+     * Compute structural hashes of scanned classes, so {@link #getRenameMap()} can be used as previous map
+     * for the next app version.
+     */
+    void setHashClasses(boolean hashClasses) {
+        this.hashClasses = hashClasses;
+    }
+
+    /**
+     * Defer big methods and stop at the deadline, see {@link ScanBudget}.
+     */
+    void setBudget(ScanBudget budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Run GC before and after the scan to report retained heap in metrics, see {@link HeapUsageTracker}.
+     */
+    void setMeasureRetainedHeap(boolean measureRetainedHeap) {
+        this.measureRetainedHeap = measureRetainedHeap;
+    }
+
+    /**
+     * Jadx can process classes while they are scanned: processing changes and unloads method instructions.
+     * Each class is then scanned holding the lock jadx takes to process its top level class, and a class
+     * whose processing already started is not loaded again: the result stored by the decompile pass is used,
+     * see {@link RenameFromLogsPass#setBackgroundPatterns}.
+     */
+    void setConcurrentDecompile(boolean concurrentDecompile) {
+        this.concurrentDecompile = concurrentDecompile;
+    }
+
+    /**
+     * Scan only classes of one shard, see {@link ShardedScan}.
+     */
+    void setShard(Predicate<ClassNode> shard) {
+        this.shard = shard;
+    }
+
+    /**
+     * Reuse renames of classes unchanged since the previous app version, scan only new and changed ones.
+     */
+    void setPrevious(RenameMap previous) {
+        this.previous = previous;
+    }
+
+    /**
+     * Scan and apply.
+     *
+     * @param usageScan scan only methods calling logger methods according to jadx usage info
+     * @return applied renames, package tree is not updated yet, see {@link RenameBatch#updatePackages}
+     */
+    RenameBatch run(RootNode root, boolean parallel, ClassFilter filter, boolean usageScan) {
+        if (!scan(root, parallel, filter, usageScan)) {
+            return new RenameBatch();
+        }
+        return applyAll(Arrays.asList(results), names, metrics);
+    }
+
+    /**
+     * Collect proposals without modifying nodes, see {@link #applyBatch(int, int)} to apply them.
+     *
+     * @param usageScan scan only methods calling logger methods according to jadx usage info
+     * @return false if cancelled
+     */
+    boolean scan(RootNode root, boolean parallel, ClassFilter filter, boolean usageScan) {
+        List<ClassNode> all = root.getClasses(true);
+        List<ClassNode> classes = filter.filter(all);
+        if (shard != null) {
+            classes = classes.stream().filter(shard).collect(Collectors.toList());
+        }
+        UsageIndex usage = null;
+        if (usageScan) {
+            try (RenameMetrics.Phase ignored = metrics.phase("usageIndex")) {
+                usage = UsageIndex.build(root, patterns);
+            }
+            if (usage != null) {
+                classes = usage.filterClasses(classes);
+            } else {
+                LOG.info("google-helpers: logger methods not resolved, usage info can't be used, scanning all classes");
+            }
+        }
+        this.usage = usage;
+        metrics.addFiltered(all.size() - classes.size());
+        ClassScanResult[] results = new ClassScanResult[classes.size()];
+        this.results = results;
+        this.names = new ClassNameIndex(root);
+        this.hasher = hashClasses || previous != null ? new ClassHasher(root) : null;
+        this.previousByHash = previous != null ? previous.byUniqueHash() : Collections.emptyMap();
+        this.reusedByHash = new ConcurrentHashMap<>();
+        this.reuseConflicts = ConcurrentHashMap.newKeySet();
+        this.deferred = new ConcurrentLinkedQueue<>();
+        classesSkipped.set(0);
+        classesBusy.set(0);
+        progress.start(classes.size());
+        int threads = parallel ? Math.max(1, root.getArgs().getThreadsCount()) : 1;
+        long start = System.currentTimeMillis();
+        HeapUsageTracker heap = HeapUsageTracker.start(measureRetainedHeap);
+        try (RenameMetrics.Phase ignored = metrics.phase("scan")) {
+            if (threads == 1 || classes.size() <= BATCH_SIZE) {
+                scanRange(classes, results, 0, classes.size());
+            } else {
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                try {
+                    pool.invoke(new ScanTask(classes, results, 0, classes.size()));
+                } finally {
+                    pool.shutdown();
+                }
+            }
+        }
+        if (!deferred.isEmpty() && !progress.isCancelled()) {
+            try (RenameMetrics.Phase ignored = metrics.phase("deferredScan")) {
+                scanDeferred(results, threads);
+            }
+        }
+        if (previous != null && !progress.isCancelled()) {
+            rescanConflicts(classes, results);
+        }
+        LOG.debug("google-helpers: scanned {} classes in {} ms using {} threads",
+                classes.size(), System.currentTimeMillis() - start, threads);
+        LOG.info("google-helpers: scan heap usage: {}", heap.finish());
+        metrics.setHeap(heap);
+        metrics.addScan(results);
+        metrics.addSkipped(classesSkipped.get());
+        int deferredSkipped = 0;
+        for (ClassScanResult result : results) {
+            if (result != null) {
+                deferredSkipped += result.getStats().methodsDeferredSkipped;
+            }
+        }
+        if (classesBusy.get() != 0) {
+            LOG.warn("google-helpers: {} of {} classes processed by jadx before they were scanned, not renamed",
+                    classesBusy.get(), classes.size());
+        }
+        if (classesSkipped.get() != 0 || deferredSkipped != 0) {
+            LOG.warn("google-helpers: scan deadline reached, {} of {} classes and {} deferred methods not scanned",
+                    classesSkipped.get(), classes.size(), deferredSkipped);
+        }
+        complete = classesSkipped.get() == 0 && deferredSkipped == 0 && classesBusy.get() == 0;
+        if (progress.isCancelled()) {
+            LOG.info("google-helpers: auto-rename cancelled after {} of {} classes", progress.getDone(), progress.getTotal());
+            return false;
+        }
+        names.assign();
+        metrics.addCollisions(names.getCollisions());
+        return true;
+    }
+
+    /**
+     * @return false if the last scan stopped at the deadline, results should not be cached
+     */
+    boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Number of scanned classes, results are applied by index.
+     */
+    int getResultsCount() {
+        return results.length;
+    }
+
+    /**
+     * Apply part of the results of the last {@link #scan}.
+     * Renames touch the shared package tree, so batches must not run concurrently.
+     *
+     * @return applied renames, package tree is not updated yet, see {@link RenameBatch#updatePackages}
+     */
+    RenameBatch applyBatch(int from, int to) {
+        RenameBatch batch = new RenameBatch();
+        for (int i = from; i < to; i++) {
+            ClassScanResult result = results[i];
+            if (result != null) {
+                batch.add(result, names.getAssigned(result.getCls()));
+            }
+        }
+        return apply(batch, metrics);
+    }
+
+    /**
+     * @return applied renames, package tree is not updated yet, see {@link RenameBatch#updatePackages}
+     */
+    static RenameBatch applyAll(RootNode root, Iterable<ClassScanResult> results, RenameMetrics metrics) {
+        ClassNameIndex names = ClassNameIndex.of(root, results);
+        names.assign();
+        metrics.addCollisions(names.getCollisions());
+        return applyAll(results, names, metrics);
+    }
+
+    /**
+     * @param names with assigned unique names for all results
+     */
+    private static RenameBatch applyAll(Iterable<ClassScanResult> results, ClassNameIndex names, RenameMetrics metrics) {
+        RenameBatch batch = new RenameBatch();
+        for (ClassScanResult result : results) {
+            if (result != null) {
+                batch.add(result, names.getAssigned(result.getCls()));
+            }
+        }
+        return apply(batch, metrics);
+    }
+
+    private static RenameBatch apply(RenameBatch batch, RenameMetrics metrics) {
+        try (RenameMetrics.Phase ignored = metrics.phase("apply")) {
+            batch.apply();
+        }
+        metrics.addApplied(batch.getRenamed().size(), batch.getRenamedMethods());
+        return batch;
+    }
+
+    /**
+     * Results of the last run detached from nodes, for saving into cache.
+     */
+    RenameMap getRenameMap() {
+        return RenameMap.fromResults(results, names);
+    }
+
+    private void scanRange(List<ClassNode> classes, ClassScanResult[] results, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (progress.isCancelled()) {
+                return;
+            }
+            ClassNode cls = classes.get(i);
+            if (budget.isExpired()) {
+                classesSkipped.incrementAndGet();
+                progress.classDone();
+                continue;
+            }
+            try {
+                long[] mthHashes = null;
+                long hash = 0;
+                if (hasher != null) {
+                    mthHashes = new long[cls.getMethods().size()];
+                    hash = hasher.hash(cls, mthHashes);
+                    RenameMap.ClassEntry prev = previousByHash.get(hash);
+                    if (prev != null) {
+                        ClassScanResult result = RenameMap.reuse(cls, mthHashes, prev);
+                        result.setHashes(hash, mthHashes);
+                        results[i] = result;
+                        Integer other = reusedByHash.putIfAbsent(hash, i);
+                        if (other != null) {
+                            reuseConflicts.add(other);
+                            reuseConflicts.add(i);
+                        }
+                        progress.classDone();
+                        continue;
+                    }
+                }
+                ClassScanResult result = scanClass(cls);
+                if (result == null) {
+                    progress.classDone();
+                    continue; // processed by jadx
+                }
+                if (hasher != null) {
+                    result.setHashes(hash, mthHashes);
+                }
+                results[i] = result;
+                if (result.getDeferred().isEmpty()) {
+                    names.add(result);
+                } else {
+                    deferred.add(i); // added to names when complete
+                }
+            } catch (Throwable t) {
+                LOG.debug("google-helpers: auto-rename error for {}: {}", cls.getFullName(), t.toString());
+            }
+            progress.classDone();
+        }
+    }
+
+    /**
+     * Reused results are added to names only here: a hash matched by several classes of this version
+     * can't tell which one is the previous class, so all of them are scanned.
+     */
+    private void rescanConflicts(List<ClassNode> classes, ClassScanResult[] results) {
+        int reused = 0;
+        for (int i : reusedByHash.values()) {
+            if (!reuseConflicts.contains(i)) {
+                names.add(results[i]);
+                reused++;
+            }
+        }
+        for (int i : reuseConflicts) {
+            ClassNode cls = classes.get(i);
+            long[] mthHashes = new long[cls.getMethods().size()];
+            try {
+                long hash = hasher.hash(cls, mthHashes);
+                ClassScanResult result = scanClass(cls);
+                if (result != null) {
+                    result.setHashes(hash, mthHashes);
+                    result = completeDeferred(result);
+                    names.add(result);
+                }
+                results[i] = result;
+            } catch (Throwable t) {
+                results[i] = null;
+                LOG.debug("google-helpers: auto-rename error for {}: {}", cls.getFullName(), t.toString());
+            }
+        }
+        metrics.addReused(reused);
+        LOG.info("google-helpers: {} classes unchanged since previous version, {} of {} classes scanned",
+                reused, results.length - reused, results.length);
+    }
+
+    /**
+     * Low priority pass over methods deferred by budget, after all classes got their first pass.
+     * Each result is completed by one worker, as the first pass did.
+     */
+    private void scanDeferred(ClassScanResult[] results, int threads) {
+        Integer[] indexes = deferred.toArray(new Integer[0]);
+        Arrays.sort(indexes);
+        LOG.info("google-helpers: scanning deferred methods of {} classes", indexes.length);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.submit(() -> Arrays.stream(indexes).parallel().forEach(i -> {
+                if (!progress.isCancelled()) {
+                    ClassScanResult result = completeDeferred(results[i]);
+                    results[i] = result;
+                    names.add(result);
+                }
+            })).join();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * @return null if jadx started processing the class and the decompile pass stored no result for it
+     */
+    private ClassScanResult scanClass(ClassNode cls) {
+        if (!concurrentDecompile) {
+            return scanClassUnlocked(cls);
+        }
+        ClassNode top = cls.getTopParentClass();
+        synchronized (top.getClassInfo()) {
+            if (!isProcessStarted(top)) {
+                return scanClassUnlocked(cls);
+            }
+            ClassScanResult stored = scanCache != null ? scanCache.get(cls, patterns) : null;
+            if (stored == null) {
+                classesBusy.incrementAndGet();
+            }
+            return stored;
+        }
+    }
+
+    /**
+     * Scan methods deferred by budget.
+     *
+     * @return completed result, or the one stored by the decompile pass if jadx started processing the class
+     */
+    private ClassScanResult completeDeferred(ClassScanResult result) {
+        if (result.getDeferred().isEmpty()) {
+            return result;
+        }
+        if (!concurrentDecompile) {
+            RenameFromLogsPass.scanDeferred(result, patterns, unloadAfterScan, budget);
+            return result;
+        }
+        ClassNode top = result.getCls().getTopParentClass();
+        synchronized (top.getClassInfo()) {
+            if (!isProcessStarted(top)) {
+                RenameFromLogsPass.scanDeferred(result, patterns, unloadAfterScan, budget);
+                return result;
+            }
+            ClassScanResult stored = scanCache != null ? scanCache.get(result.getCls(), patterns) : null;
+            if (stored == null) {
+                result.getStats().methodsDeferredSkipped += result.getDeferred().size();
+                result.clearDeferred();
+                return result;
+            }
+            stored.setHashes(result.getHash(), result.getMethodHashes());
+            return stored;
+        }
+    }
+
+    /**
+     * Jadx loads, processes and unloads classes holding the lock of top level class info (see ProcessClass),
+     * state is read under the same lock.
+     */
+    private static boolean isProcessStarted(ClassNode top) {
+        ProcessState state = top.getState();
+        return state != ProcessState.NOT_LOADED && state != ProcessState.LOADED;
+    }
+
+    private ClassScanResult scanClassUnlocked(ClassNode cls) {
+        RenameEvents.ClassScanEvent event = new RenameEvents.ClassScanEvent();
+        event.begin();
+        ClassScanResult result = scanCache != null
+                ? scanCache.scan(cls, patterns, unloadAfterScan, usage, budget)
+                : RenameFromLogsPass.scanClassFromLogs(cls, patterns, unloadAfterScan, usage, budget);
+        event.end();
+        if (event.shouldCommit()) {
+            event.cls = cls.getRawName();
+            event.methodsLoaded = result.getStats().methodsLoaded;
+            event.invokesExamined = result.getStats().invokesExamined;
+            event.namesFound = (result.getClassName() != null ? 1 : 0) + result.getMethodRenames().size();
+            event.commit();
+        }
+        return result;
+    }
+
+    private final class ScanTask extends RecursiveAction {
+        private final List<ClassNode> classes;
+        private final ClassScanResult[] results;
+        private final int from;
+        private final int to;
+
+        ScanTask(List<ClassNode> classes, ClassScanResult[] results, int from, int to) {
+            this.classes = classes;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_SIZE) {
+                scanRange(classes, results, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ScanTask(classes, results, from, mid), new ScanTask(classes, results, mid, to));
+        }
+    }
+}
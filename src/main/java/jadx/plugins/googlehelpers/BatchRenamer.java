@@ -0,0 +1,273 @@
+package jadx.plugins.googlehelpers;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import jadx.api.JadxArgs;
+import jadx.api.JadxDecompiler;
+import jadx.core.dex.nodes.RootNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Headless driver: run auto-rename over many inputs in one JVM and write a rename map per input.
+ * Several inputs are loaded at once, limited by a heap budget reserved per input from its file size.
+ * <p>
+ * Needs jadx-core and input plugins on classpath, see 'batchRename' gradle task.
+ */
+public final class BatchRenamer {
+    private static final Logger LOG = LoggerFactory.getLogger(BatchRenamer.class);
+
+    private static final long MB = 1024 * 1024;
+    // rough heap usage of a loaded input relative to its (compressed) file size
+    private static final int HEAP_PER_INPUT_BYTE = 12;
+    private static final int MIN_INPUT_RESERVE_MB = 64;
+
+    private final Path outDir;
+    private final int jobs;
+    private final int threadsPerInput;
+    private final int memoryBudgetMb;
+    private final Map<String, String> pluginOptions;
+    private final Semaphore memory;
+
+    BatchRenamer(Path outDir, int jobs, int threadsPerInput, int memoryBudgetMb, Map<String, String> pluginOptions) {
+        this.outDir = outDir;
+        this.jobs = jobs;
+        this.threadsPerInput = threadsPerInput;
+        this.memoryBudgetMb = memoryBudgetMb;
+        this.pluginOptions = pluginOptions;
+        this.memory = new Semaphore(memoryBudgetMb, true);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        int jobs = Math.max(1, cpus / 4);
+        int threads = 0;
+        int budgetMb = (int) (Runtime.getRuntime().maxMemory() * 3 / 4 / MB);
+        Map<String, String> pluginOptions = new HashMap<>();
+        List<String> positional = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--jobs")) {
+                jobs = Integer.parseInt(args[++i]);
+            } else if (arg.equals("--threads")) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (arg.equals("--memory-budget")) {
+                budgetMb = Integer.parseInt(args[++i]);
+            } else if (arg.startsWith("-P") && arg.indexOf('=') > 2) {
+                int eq = arg.indexOf('=');
+                pluginOptions.put(arg.substring(2, eq), arg.substring(eq + 1));
+            } else if (arg.startsWith("-")) {
+                usage("unknown option: " + arg);
+                return;
+            } else {
+                positional.add(arg);
+            }
+        }
+        if (positional.size() < 2) {
+            usage("output dir and at least one input are required");
+            return;
+        }
+        if (threads <= 0) {
+            threads = Math.max(1, cpus / jobs);
+        }
+        Map<File, String> inputs;
+        try {
+            inputs = collectInputs(positional.subList(1, positional.size()));
+        } catch (IllegalArgumentException e) {
+            usage(e.getMessage());
+            return;
+        }
+        BatchRenamer renamer = new BatchRenamer(Paths.get(positional.get(0)), jobs, threads, budgetMb, pluginOptions);
+        boolean ok = renamer.run(inputs);
+        System.exit(ok ? 0 : 1);
+    }
+
+    private static void usage(String error) {
+        System.err.println("google-helpers: " + error);
+        System.err.println("Usage: BatchRenamer [options] <output dir> <input file or dir>...");
+        System.err.println("  --jobs N            inputs processed at the same time (default: cpus / 4)");
+        System.err.println("  --threads N         jadx threads per input (default: cpus / jobs)");
+        System.err.println("  --memory-budget MB  heap reserved for loaded inputs (default: 75% of max heap)");
+        System.err.println("  -P<name>=<value>    plugin option, same as in jadx-cli");
+    }
+
+    /**
+     * Directories are expanded to contained apk/dex/jar files. Their maps keep the path relative to
+     * the given directory, so {@code v1/base.apk} and {@code v2/base.apk} don't overwrite each other.
+     *
+     * @return input file to its map path relative to output dir, in argument order
+     * @throws IllegalArgumentException if two inputs would write the same map
+     */
+    static Map<File, String> collectInputs(List<String> paths) throws IOException {
+        Map<File, String> inputs = new LinkedHashMap<>();
+        Map<String, File> byOutName = new HashMap<>();
+        for (String p : paths) {
+            Path path = Paths.get(p);
+            if (Files.isDirectory(path)) {
+                List<Path> files;
+                try (Stream<Path> walk = Files.walk(path)) {
+                    files = walk.filter(Files::isRegularFile)
+                            .filter(f -> isInputFile(f.getFileName().toString()))
+                            .sorted()
+                            .collect(Collectors.toList());
+                }
+                for (Path file : files) {
+                    String relative = path.relativize(file).toString().replace(File.separatorChar, '/');
+                    addInput(inputs, byOutName, file.toFile(), relative);
+                }
+            } else {
+                addInput(inputs, byOutName, path.toFile(), path.getFileName().toString());
+            }
+        }
+        return inputs;
+    }
+
+    private static void addInput(Map<File, String> inputs, Map<String, File> byOutName, File input, String name) {
+        String outName = name + ".renames.txt";
+        File other = byOutName.putIfAbsent(outName, input);
+        if (other != null) {
+            throw new IllegalArgumentException("inputs " + other + " and " + input + " would both write " + outName);
+        }
+        inputs.put(input, outName);
+    }
+
+    private static boolean isInputFile(String name) {
+        String lower = name.toLowerCase();
+        return lower.endsWith(".apk") || lower.endsWith(".dex") || lower.endsWith(".jar");
+    }
+
+    /**
+     * @param inputs input file to its map path relative to output dir, see {@link #collectInputs(List)}
+     * @return true if all inputs processed without errors
+     */
+    boolean run(Map<File, String> inputs) throws Exception {
+        Files.createDirectories(outDir);
+        LOG.info("google-helpers: batch of {} inputs, {} jobs, {} threads per input, memory budget {} MB",
+                inputs.size(), jobs, threadsPerInput, memoryBudgetMb);
+        long start = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(jobs);
+        List<Future<InputResult>> futures = new ArrayList<>(inputs.size());
+        try {
+            inputs.forEach((input, outName) -> futures.add(executor.submit(() -> processWithBudget(input, outName))));
+            int done = 0;
+            int failed = 0;
+            long classes = 0;
+            long renamed = 0;
+            for (Future<InputResult> future : futures) {
+                InputResult result = future.get();
+                if (result.error != null) {
+                    failed++;
+                    continue;
+                }
+                done++;
+                classes += result.classes;
+                renamed += result.renamed;
+            }
+            long elapsed = Math.max(1, System.currentTimeMillis() - start);
+            LOG.info("google-helpers: batch finished in {} s: {} inputs done, {} failed, {} classes scanned, {} renamed",
+                    elapsed / 1000, done, failed, classes, renamed);
+            LOG.info("google-helpers: throughput {} APKs/min, {} classes/sec",
+                    String.format("%.2f", done * 60_000.0 / elapsed),
+                    String.format("%.0f", classes * 1000.0 / elapsed));
+            return failed == 0;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private InputResult processWithBudget(File input, String outName) {
+        int reserveMb = reserveFor(input);
+        try {
+            memory.acquire(reserveMb);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return InputResult.failed(e);
+        }
+        try {
+            return process(input, outName);
+        } catch (Throwable e) {
+            LOG.error("google-helpers: failed to process {}", input, e);
+            return InputResult.failed(e);
+        } finally {
+            memory.release(reserveMb);
+        }
+    }
+
+    private int reserveFor(File input) {
+        long estimate = input.length() * HEAP_PER_INPUT_BYTE / MB;
+        // never ask for more than the whole budget, otherwise a big input would wait forever
+        return (int) Math.min(memoryBudgetMb, Math.max(MIN_INPUT_RESERVE_MB, estimate));
+    }
+
+    private InputResult process(File input, String outName) throws IOException {
+        long start = System.currentTimeMillis();
+        GoogleHelpersOptions options = new GoogleHelpersOptions();
+        options.setOptions(pluginOptions);
+
+        JadxArgs args = new JadxArgs();
+        args.setInputFile(input);
+        args.setThreadsCount(threadsPerInput);
+        args.setSkipResources(true);
+        args.setPluginOptions(pluginOptions);
+        // renames are done below, don't run plugin passes a second time
+        args.setDisabledPlugins(Set.of(GoogleHelpersPlugin.PLUGIN_ID));
+        try (JadxDecompiler jadx = new JadxDecompiler(args)) {
+            jadx.load();
+            RootNode root = jadx.getRoot();
+            // context is bound to this root only, inputs are resolved concurrently
+            CallPatterns patterns = RenameContext.resolve(root, options).getPatterns();
+            RenameMetrics metrics = new RenameMetrics();
+            AutoRenameRunner runner = new AutoRenameRunner(patterns, options.isUnloadAfterScan(), metrics, null);
+            runner.setBudget(ScanBudget.fromOptions(options));
+            runner.setMeasureRetainedHeap(options.isMeasureRetainedHeap());
+            // output is the map only, package tree is not needed
+            int renamed = runner.run(root, options.isParallelScan(), ClassFilter.fromOptions(options), options.isUsageScan())
+                    .getRenamed().size();
+            RenameMap map = runner.getRenameMap();
+            Path outFile = outDir.resolve(outName);
+            Files.createDirectories(outFile.getParent());
+            try (Writer out = Files.newBufferedWriter(outFile, StandardCharsets.UTF_8)) {
+                map.writeText(out);
+            }
+            int classes = root.getClasses().size();
+            LOG.debug("google-helpers: {} metrics: {}", input.getName(), metrics);
+            LOG.info("google-helpers: {}: {} classes, {} renamed, {} methods, {} ms -> {}",
+                    input.getName(), classes, renamed, map.countMethods(), System.currentTimeMillis() - start, outFile);
+            return new InputResult(classes, renamed, null);
+        }
+    }
+
+    private static final class InputResult {
+        final int classes;
+        final int renamed;
+        final Throwable error;
+
+        InputResult(int classes, int renamed, Throwable error) {
+            this.classes = classes;
+            this.renamed = renamed;
+            this.error = error;
+        }
+
+        static InputResult failed(Throwable error) {
+            return new InputResult(0, 0, error);
+        }
+    }
+}
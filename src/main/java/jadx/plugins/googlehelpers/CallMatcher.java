@@ -0,0 +1,175 @@
+package jadx.plugins.googlehelpers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jadx.api.plugins.input.data.IMethodRef;
+import jadx.core.dex.info.ClassInfo;
+import jadx.core.dex.info.MethodInfo;
+import jadx.core.dex.instructions.args.ArgType;
+import jadx.core.dex.nodes.ClassNode;
+import jadx.core.dex.nodes.RootNode;
+
+/**
+ * {@link RenameFromLogsPass.MethodRef} resolved against a loaded root.
+ * Owner and argument types are interned jadx infos, so matching an invoke is
+ * a few reference/equals checks without building any strings.
+ */
+final class CallMatcher {
+    private final RenameFromLogsPass.MethodRef ref;
+    private final ClassInfo owner;
+    private final String name;
+    private final List<ArgType> argTypes; // null if ref has no signature
+    private final MethodInfo exactMth; // interned target for exact matching, null if ref has no signature
+    private final SubtypeIndex subtypes; // null if only the exact owner is allowed
+    private final String key; // same for matchers compiled from equal refs
+
+    // same checks on raw (not yet loaded) code refs, owners as type descriptors like La/b/C;
+    private final Set<String> rawOwners;
+    private final List<String> rawArgTypes; // null if ref has no signature
+    private final String rawRetType; // null if return type is not checked
+    private final Map<Integer, Boolean> rawResults = new ConcurrentHashMap<>(); // by method ref uniq id
+
+    private CallMatcher(RenameFromLogsPass.MethodRef ref, ClassInfo owner, List<ArgType> argTypes,
+            MethodInfo exactMth, SubtypeIndex subtypes) {
+        this.ref = ref;
+        this.owner = owner;
+        this.name = ref.name;
+        this.argTypes = argTypes;
+        this.exactMth = exactMth;
+        this.subtypes = subtypes;
+        this.key = (subtypes != null ? "subtypes:" : "exact:") + ref;
+        this.rawOwners = new HashSet<>();
+        this.rawOwners.add(rawDescriptor(owner));
+        if (subtypes != null) {
+            for (ClassInfo sub : subtypes.getSubtypes()) {
+                rawOwners.add(rawDescriptor(sub));
+            }
+        }
+        this.rawArgTypes = ref.hasSignature ? Arrays.asList(ref.argTypes) : null;
+        this.rawRetType = ref.hasSignature && exactMth != null ? ref.retType : null;
+    }
+
+    /**
+     * Match calls to exactly this method (owner, name and full signature).
+     */
+    static CallMatcher exact(RootNode root, RenameFromLogsPass.MethodRef ref) {
+        if (ref == null) return null;
+        ClassInfo owner = resolveOwner(root, ref.ownerDot);
+        List<ArgType> args = null;
+        MethodInfo mth = null;
+        if (ref.hasSignature) {
+            args = parseTypes(ref.argTypes);
+            mth = MethodInfo.fromDetails(root, owner, ref.name, args, ArgType.parse(ref.retType));
+        }
+        return new CallMatcher(ref, owner, args, mth, null);
+    }
+
+    /**
+     * Match calls by name and argument types (return type ignored) on the owner or any of its subtypes.
+     */
+    static CallMatcher withSubtypes(RootNode root, RenameFromLogsPass.MethodRef ref) {
+        if (ref == null) return null;
+        ClassInfo owner = resolveOwner(root, ref.ownerDot);
+        ClassNode ownerCls = root.resolveClass(owner);
+        List<ArgType> args = ref.hasSignature ? parseTypes(ref.argTypes) : null;
+        return new CallMatcher(ref, owner, args, null, SubtypeIndex.build(root, ownerCls));
+    }
+
+    boolean matches(MethodInfo call) {
+        MethodInfo exact = exactMth;
+        if (exact != null) {
+            return call == exact || exact.equals(call);
+        }
+        if (!call.getName().equals(name)) return false;
+        if (argTypes != null && !argsMatch(call.getArgumentsTypes())) return false;
+        ClassInfo callOwner = call.getDeclClass();
+        if (callOwner == owner || callOwner.equals(owner)) return true;
+        return subtypes != null && subtypes.contains(callOwner);
+    }
+
+    /**
+     * Check a method ref from raw instructions, used to skip methods without decoding them.
+     */
+    boolean matchesRaw(IMethodRef mthRef) {
+        int id = mthRef.getUniqId();
+        if (id != 0) {
+            Boolean known = rawResults.get(id);
+            if (known != null) {
+                return known;
+            }
+        }
+        mthRef.load();
+        boolean result = mthRef.getName().equals(name)
+                && rawOwners.contains(mthRef.getParentClassType())
+                && (rawArgTypes == null || rawArgTypes.equals(mthRef.getArgTypes()))
+                && (rawRetType == null || rawRetType.equals(mthRef.getReturnType()));
+        if (id != 0) {
+            rawResults.put(id, result);
+        }
+        return result;
+    }
+
+    private boolean argsMatch(List<ArgType> callArgs) {
+        int count = argTypes.size();
+        if (callArgs.size() != count) return false;
+        for (int i = 0; i < count; i++) {
+            if (!argTypes.get(i).equals(callArgs.get(i))) return false;
+        }
+        return true;
+    }
+
+    RenameFromLogsPass.MethodRef getRef() {
+        return ref;
+    }
+
+    SubtypeIndex getSubtypes() {
+        return subtypes;
+    }
+
+    /**
+     * Classes declaring methods this matcher accepts.
+     */
+    Set<ClassInfo> getOwners() {
+        return subtypes != null ? subtypes.getSubtypes() : Collections.singleton(owner);
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    private static ClassInfo resolveOwner(RootNode root, String ownerDot) {
+        ClassInfo info = ClassInfo.fromName(root, ownerDot);
+        if (root.resolveClass(info) == null) {
+            // configured refs may use already renamed (alias) names
+            ClassNode byAlias = root.searchClassByFullAlias(ownerDot);
+            if (byAlias != null) {
+                return byAlias.getClassInfo();
+            }
+        }
+        return info;
+    }
+
+    private static String rawDescriptor(ClassInfo cls) {
+        return 'L' + cls.getRawName().replace('.', '/') + ';';
+    }
+
+    private static List<ArgType> parseTypes(String[] descriptors) {
+        List<ArgType> list = new ArrayList<>(descriptors.length);
+        for (String desc : descriptors) {
+            list.add(ArgType.parse(desc));
+        }
+        return list;
+    }
+
+    @Override
+    public String toString() {
+        return "CallMatcher{" + owner + "->" + name + (argTypes != null ? argTypes : "") + '}';
+    }
+}
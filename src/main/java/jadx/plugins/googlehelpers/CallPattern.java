@@ -0,0 +1,134 @@
+package jadx.plugins.googlehelpers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jadx.core.dex.nodes.MethodNode;
+import jadx.core.dex.nodes.RootNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A logger call to look for and which of its string arguments name the class and the calling method.
+ * <p>
+ * User patterns are configured as {@code ref=classArg[,methodArg]}, e.g. {@code android/util/Log.d=0}
+ * takes the tag of every {@code Log.d} overload as class name. Use {@code -} for an argument not present.
+ * Arguments are counted without {@code this}.
+ */
+final class CallPattern {
+    private static final Logger LOG = LoggerFactory.getLogger(CallPattern.class);
+
+    static final int NO_ARG = -1;
+
+    private final String name;
+    private final CallMatcher matcher;
+    private final int classArg;
+    private final int methodArg;
+    private final boolean initOnly; // search only in class initializer and constructors
+
+    CallPattern(String name, CallMatcher matcher, int classArg, int methodArg, boolean initOnly) {
+        this.name = name;
+        this.matcher = matcher;
+        this.classArg = classArg;
+        this.methodArg = methodArg;
+        this.initOnly = initOnly;
+    }
+
+    /**
+     * Flogger {@code GoogleLogger.forEnclosingClass()} replacement: class name in a static field initializer.
+     */
+    static CallPattern factory(CallMatcher matcher) {
+        return matcher == null ? null : new CallPattern("factory", matcher, 0, NO_ARG, true);
+    }
+
+    /**
+     * Flogger {@code setLocation(className, methodName, line, file)}.
+     */
+    static CallPattern location(CallMatcher matcher) {
+        return matcher == null ? null : new CallPattern("location", matcher, 0, 1, false);
+    }
+
+    /**
+     * Parse user patterns separated by '|' or whitespace, invalid entries are logged and skipped.
+     */
+    static List<CallPattern> parseAll(RootNode root, String spec) {
+        List<CallPattern> list = new ArrayList<>();
+        if (spec == null) {
+            return list;
+        }
+        for (String entry : spec.split("[|\\s]+")) {
+            if (entry.isEmpty()) continue;
+            CallPattern pattern = parse(root, entry);
+            if (pattern != null) {
+                list.add(pattern);
+            } else {
+                LOG.warn("google-helpers: ignoring invalid call pattern '{}'", entry);
+            }
+        }
+        return list;
+    }
+
+    private static CallPattern parse(RootNode root, String entry) {
+        int eq = entry.lastIndexOf('=');
+        String refStr = eq == -1 ? entry : entry.substring(0, eq);
+        int classArg = 0;
+        int methodArg = NO_ARG;
+        try {
+            if (eq != -1) {
+                String[] args = entry.substring(eq + 1).split(",", -1);
+                if (args.length > 2) return null;
+                classArg = parseArg(args[0]);
+                methodArg = args.length == 2 ? parseArg(args[1]) : NO_ARG;
+            }
+            RenameFromLogsPass.MethodRef ref = RenameFromLogsPass.MethodRef.parse(refStr);
+            if (ref == null || (classArg == NO_ARG && methodArg == NO_ARG)) return null;
+            return new CallPattern(entry, CallMatcher.withSubtypes(root, ref), classArg, methodArg, false);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static int parseArg(String s) {
+        String v = s.trim();
+        if (v.equals("-")) return NO_ARG;
+        int arg = Integer.parseInt(v);
+        if (arg < 0) throw new NumberFormatException(v);
+        return arg;
+    }
+
+    /**
+     * Same call, class name only.
+     */
+    CallPattern withoutMethodArg() {
+        return methodArg == NO_ARG ? this : new CallPattern(name, matcher, classArg, NO_ARG, initOnly);
+    }
+
+    boolean appliesTo(MethodNode mth) {
+        return !initOnly || mth.getMethodInfo().isConstructor() || mth.getMethodInfo().isClassInit();
+    }
+
+    String getName() {
+        return name;
+    }
+
+    CallMatcher getMatcher() {
+        return matcher;
+    }
+
+    int getClassArg() {
+        return classArg;
+    }
+
+    int getMethodArg() {
+        return methodArg;
+    }
+
+    String getKey() {
+        return matcher.getKey() + '=' + classArg + ',' + methodArg + (initOnly ? ",init" : "");
+    }
+
+    @Override
+    public String toString() {
+        return name + '{' + matcher + " class=" + classArg + " method=" + methodArg + '}';
+    }
+}
@@ -0,0 +1,136 @@
+package jadx.plugins.googlehelpers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import jadx.core.dex.nodes.RootNode;
+
+/**
+ * All patterns searched in one pass over each method's instructions.
+ * Order is the precedence of found class names, the last one wins:
+ * user patterns, then Flogger factory, then setLocation.
+ * <p>
+ * Class-name-only patterns ({@link #classNamesOnly()}) drop method names and let the scan stop a class
+ * at the first confident name, see {@link #getConfidentPriority()}.
+ */
+final class CallPatterns {
+    static final CallPatterns EMPTY = new CallPatterns(Collections.emptyList());
+
+    private final CallPattern[] patterns;
+    private final CallMatcher[] matchers;
+    private final String key; // same for patterns compiled from equal refs
+    private final int confidentPriority;
+
+    private CallPatterns(List<CallPattern> list) {
+        this(list, Integer.MAX_VALUE);
+    }
+
+    private CallPatterns(List<CallPattern> list, int confidentPriority) {
+        this.patterns = list.toArray(new CallPattern[0]);
+        this.confidentPriority = confidentPriority;
+        this.matchers = new CallMatcher[patterns.length];
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < patterns.length; i++) {
+            matchers[i] = patterns[i].getMatcher();
+            sb.append(patterns[i].getKey()).append(';');
+        }
+        if (confidentPriority != Integer.MAX_VALUE) {
+            sb.append("namesOnly");
+        }
+        this.key = sb.toString();
+    }
+
+    static CallPatterns of(CallMatcher factory, CallMatcher location) {
+        return of(factory, location, Collections.emptyList());
+    }
+
+    static CallPatterns of(CallMatcher factory, CallMatcher location, List<CallPattern> userPatterns) {
+        List<CallPattern> list = new ArrayList<>(userPatterns);
+        CallPattern factoryPattern = CallPattern.factory(factory);
+        if (factoryPattern != null) {
+            list.add(factoryPattern);
+        }
+        CallPattern locationPattern = CallPattern.location(location);
+        if (locationPattern != null) {
+            list.add(locationPattern);
+        }
+        return list.isEmpty() ? EMPTY : new CallPatterns(list);
+    }
+
+    /**
+     * Compile resolved Flogger refs (may be null) together with user patterns from options.
+     */
+    static CallPatterns compile(RootNode root, RenameFromLogsPass.MethodRef factoryRef,
+            RenameFromLogsPass.MethodRef locationRef, GoogleHelpersOptions options) {
+        return of(RenameFromLogsPass.compileFactory(root, factoryRef),
+                RenameFromLogsPass.compileLocation(root, locationRef),
+                CallPattern.parseAll(root, options.getPatterns()));
+    }
+
+    /**
+     * Patterns with a class name argument only, method name arguments dropped.
+     * Only a name of the last pattern (setLocation if resolved) can't be replaced by a later pattern,
+     * so only it is confident and the class gets a name of the same pattern as in a full scan.
+     * <p>
+     * The scan stops at the first such name: if methods of a class propose several names by that pattern,
+     * the full scan can pick another one of them by votes, see {@link ClassScanResult#addClassName}.
+     */
+    CallPatterns classNamesOnly() {
+        if (confidentPriority != Integer.MAX_VALUE) {
+            return this;
+        }
+        List<CallPattern> list = new ArrayList<>(patterns.length);
+        for (CallPattern pattern : patterns) {
+            if (pattern.getClassArg() == CallPattern.NO_ARG) continue;
+            list.add(pattern.withoutMethodArg());
+        }
+        if (list.isEmpty()) {
+            return EMPTY;
+        }
+        return new CallPatterns(list, list.size() - 1);
+    }
+
+    boolean isClassNamesOnly() {
+        return confidentPriority != Integer.MAX_VALUE;
+    }
+
+    /**
+     * @return class name priority after which a class scan can stop, {@link Integer#MAX_VALUE} to scan all methods
+     */
+    int getConfidentPriority() {
+        return confidentPriority;
+    }
+
+    int size() {
+        return patterns.length;
+    }
+
+    boolean isEmpty() {
+        return patterns.length == 0;
+    }
+
+    /**
+     * @param i also the precedence of class names found by this pattern
+     */
+    CallPattern get(int i) {
+        return patterns[i];
+    }
+
+    CallMatcher[] getMatchers() {
+        return matchers;
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (CallPattern pattern : patterns) {
+            sb.append(sb.length() == 0 ? "" : ", ").append(pattern);
+        }
+        return '[' + sb.toString() + ']';
+    }
+}
@@ -0,0 +1,222 @@
+package jadx.plugins.googlehelpers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import jadx.core.dex.nodes.ClassNode;
+
+/**
+ * Include/exclude filter for classes to scan, compiled once from options.
+ * <p>
+ * Entries are package or class prefixes ({@code androidx}, {@code com.google.protobuf}, {@code a.b.C})
+ * or globs ({@code com.*.internal}, {@code a.b.?Impl}): {@code *} matches inside one name segment,
+ * {@code **} matches anything. Any entry also matches everything inside a matched package or class.
+ * Slash separated and descriptor forms are accepted too.
+ * Prefixes are stored in a char trie, all globs are joined into one regex.
+ */
+final class ClassFilter {
+    static final ClassFilter ACCEPT_ALL = new ClassFilter(new Matcher(new ArrayList<>()), new Matcher(new ArrayList<>()));
+
+    private final Matcher include; // empty means include all
+    private final Matcher exclude;
+
+    private ClassFilter(Matcher include, Matcher exclude) {
+        this.include = include;
+        this.exclude = exclude;
+    }
+
+    static ClassFilter fromOptions(GoogleHelpersOptions options) {
+        List<String> includes = split(options.getInclude());
+        String target = options.getTargetClass();
+        if (target != null && !target.trim().isEmpty()) {
+            includes.add(target); // single class option kept for compatibility
+        }
+        return compile(includes, split(options.getExclude()));
+    }
+
+    static ClassFilter compile(List<String> includes, List<String> excludes) {
+        if (includes.isEmpty() && excludes.isEmpty()) {
+            return ACCEPT_ALL;
+        }
+        return new ClassFilter(new Matcher(includes), new Matcher(excludes));
+    }
+
+    boolean hasIncludes() {
+        return !include.isEmpty();
+    }
+
+    boolean accepts(ClassNode cls) {
+        return accepts(cls.getRawName(), cls.getFullName());
+    }
+
+    /**
+     * @param raw original full name
+     * @param alias current full name, checked too if class is already renamed
+     */
+    boolean accepts(String raw, String alias) {
+        boolean renamed = !alias.equals(raw);
+        if (!include.isEmpty() && !include.matches(raw) && !(renamed && include.matches(alias))) {
+            return false;
+        }
+        return exclude.isEmpty() || !(exclude.matches(raw) || (renamed && exclude.matches(alias)));
+    }
+
+    List<ClassNode> filter(List<ClassNode> classes) {
+        if (this == ACCEPT_ALL) {
+            return classes;
+        }
+        List<ClassNode> list = new ArrayList<>(classes.size());
+        for (ClassNode cls : classes) {
+            if (accepts(cls)) {
+                list.add(cls);
+            }
+        }
+        return list;
+    }
+
+    private static List<String> split(String value) {
+        List<String> list = new ArrayList<>();
+        if (value == null) {
+            return list;
+        }
+        for (String part : value.split("[,;\\s]+")) {
+            if (!part.isEmpty()) {
+                list.add(part);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Accept forms like a/b/C, La/b/C; or a.b.C, also trailing '.*' or '.' for a whole package.
+     */
+    private static String normalize(String entry) {
+        String s = entry.trim();
+        if (s.startsWith("L") && s.endsWith(";")) {
+            s = s.substring(1, s.length() - 1);
+        }
+        s = s.replace('/', '.');
+        if (s.endsWith(".**")) {
+            s = s.substring(0, s.length() - 3);
+        } else if (s.endsWith(".*")) {
+            s = s.substring(0, s.length() - 2);
+        }
+        while (s.endsWith(".")) {
+            s = s.substring(0, s.length() - 1);
+        }
+        return s;
+    }
+
+    private static final class Matcher {
+        private final TrieNode prefixes = new TrieNode();
+        private final Pattern globs; // null if no globs
+        private final boolean empty;
+
+        Matcher(List<String> entries) {
+            StringBuilder sb = new StringBuilder();
+            boolean hasPrefixes = false;
+            for (String entry : entries) {
+                String s = normalize(entry);
+                if (s.isEmpty()) continue;
+                if (s.indexOf('*') == -1 && s.indexOf('?') == -1) {
+                    prefixes.add(s);
+                    hasPrefixes = true;
+                } else {
+                    if (sb.length() != 0) {
+                        sb.append('|');
+                    }
+                    sb.append(globToRegex(s));
+                }
+            }
+            this.globs = sb.length() == 0 ? null : Pattern.compile(sb.toString());
+            this.empty = !hasPrefixes && globs == null;
+        }
+
+        boolean isEmpty() {
+            return empty;
+        }
+
+        boolean matches(String name) {
+            return prefixes.matchesPrefixOf(name) || (globs != null && globs.matcher(name).matches());
+        }
+
+        private static String globToRegex(String glob) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < glob.length(); i++) {
+                char c = glob.charAt(i);
+                if (c == '*') {
+                    if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                        sb.append(".*");
+                        i++;
+                    } else {
+                        sb.append("[^.]*");
+                    }
+                } else if (c == '?') {
+                    sb.append("[^.]");
+                } else {
+                    sb.append(Pattern.quote(String.valueOf(c)));
+                }
+            }
+            // like prefixes: also match classes inside matched package and inner classes
+            return "(?:" + sb + ")(?:[.$].*)?";
+        }
+    }
+
+    /**
+     * Char trie, a prefix matches a name only on a segment boundary: end of name, '.' or '$'.
+     */
+    private static final class TrieNode {
+        private char[] keys = new char[0];
+        private TrieNode[] children = new TrieNode[0];
+        private boolean terminal;
+
+        void add(String prefix) {
+            TrieNode node = this;
+            for (int i = 0; i < prefix.length(); i++) {
+                node = node.getOrAdd(prefix.charAt(i));
+            }
+            node.terminal = true;
+        }
+
+        boolean matchesPrefixOf(String name) {
+            TrieNode node = this;
+            int len = name.length();
+            for (int i = 0; i < len; i++) {
+                char c = name.charAt(i);
+                if (node.terminal && (c == '.' || c == '$')) {
+                    return true;
+                }
+                node = node.get(c);
+                if (node == null) {
+                    return false;
+                }
+            }
+            return node.terminal;
+        }
+
+        private TrieNode get(char c) {
+            char[] k = keys;
+            for (int i = 0; i < k.length; i++) {
+                if (k[i] == c) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        private TrieNode getOrAdd(char c) {
+            TrieNode node = get(c);
+            if (node == null) {
+                int n = keys.length;
+                keys = Arrays.copyOf(keys, n + 1);
+                children = Arrays.copyOf(children, n + 1);
+                keys[n] = c;
+                node = new TrieNode();
+                children[n] = node;
+            }
+            return node;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package jadx.plugins.googlehelpers;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jadx.api.plugins.input.data.ICodeReader;
+import jadx.api.plugins.input.data.IMethodRef;
+import jadx.api.plugins.input.insns.Opcode;
+import jadx.core.codegen.TypeGen;
+import jadx.core.dex.instructions.args.ArgType;
+import jadx.core.dex.nodes.ClassNode;
+import jadx.core.dex.nodes.FieldNode;
+import jadx.core.dex.nodes.MethodNode;
+import jadx.core.dex.nodes.RootNode;
+
+/**
+ * Structural hash of a class which survives re-obfuscation of the same code in the next app version:
+ * access flags, field and method shapes, opcodes, invoked methods and string constants.
+ * Names of app classes and methods are left out, only library refs (Android, Java) are hashed by name.
+ * Method hashes are combined in sorted order, so member reordering doesn't change the class hash.
+ * <p>
+ * Works on raw method code, no instructions are loaded. Safe to use from several threads.
+ */
+final class ClassHasher {
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    // placeholder for app class names, changed by obfuscation
+    private static final String APP_TYPE = "L;";
+
+    private final RootNode root;
+    // raw type descriptor -> normalized form
+    private final Map<String, String> types = new ConcurrentHashMap<>();
+
+    ClassHasher(RootNode root) {
+        this.root = root;
+    }
+
+    /**
+     * @param mthHashes filled with hash of each method in {@link ClassNode#getMethods()} order
+     */
+    long hash(ClassNode cls, long[] mthHashes) {
+        List<MethodNode> methods = cls.getMethods();
+        for (int i = 0; i < mthHashes.length; i++) {
+            mthHashes[i] = hashMethod(methods.get(i));
+        }
+        long[] sorted = mthHashes.clone();
+        Arrays.sort(sorted);
+        long h = FNV_OFFSET;
+        h = add(h, cls.getAccessFlags().rawValue());
+        h = add(h, type(cls.getSuperClass()));
+        for (ArgType iface : cls.getInterfaces()) {
+            h = add(h, type(iface));
+        }
+        long fields = 0; // order independent
+        for (FieldNode fld : cls.getFields()) {
+            fields += add(add(FNV_OFFSET, fld.getAccessFlags().rawValue()), type(fld.getType()));
+        }
+        h = add(h, fields);
+        for (long mthHash : sorted) {
+            h = add(h, mthHash);
+        }
+        return h;
+    }
+
+    long hashMethod(MethodNode mth) {
+        long h = FNV_OFFSET;
+        h = add(h, mth.getAccessFlags().rawValue());
+        for (ArgType arg : mth.getArgTypes()) {
+            h = add(h, type(arg));
+        }
+        h = add(h, type(mth.getReturnType()));
+        ICodeReader codeReader = mth.getCodeReader();
+        if (codeReader == null) {
+            return h; // abstract or native
+        }
+        long[] code = { h };
+        codeReader.visitInstructions(insn -> {
+            Opcode opcode = insn.getOpcode();
+            long c = add(code[0], opcode.ordinal());
+            if (opcode == Opcode.CONST_STRING) {
+                insn.decode();
+                c = add(c, insn.getIndexAsString());
+            } else if (RawInvokeFilter.isMethodInvoke(opcode)) {
+                insn.decode();
+                c = addRef(c, insn.getIndexAsMethod());
+            }
+            code[0] = c;
+        });
+        return code[0];
+    }
+
+    private long addRef(long h, IMethodRef ref) {
+        ref.load();
+        String owner = rawType(ref.getParentClassType());
+        h = add(h, owner);
+        if (!owner.equals(APP_TYPE)) {
+            h = add(h, ref.getName());
+        }
+        for (String arg : ref.getArgTypes()) {
+            h = add(h, rawType(arg));
+        }
+        return add(h, rawType(ref.getReturnType()));
+    }
+
+    private String type(ArgType type) {
+        return type == null ? "" : rawType(TypeGen.signature(type));
+    }
+
+    /**
+     * Descriptor with app class names replaced, array dimensions kept.
+     */
+    private String rawType(String desc) {
+        int arr = 0;
+        while (arr < desc.length() && desc.charAt(arr) == '[') {
+            arr++;
+        }
+        if (arr == desc.length() || desc.charAt(arr) != 'L') {
+            return desc; // primitive
+        }
+        int dims = arr;
+        return types.computeIfAbsent(desc, d -> {
+            String clsName = d.substring(dims + 1, d.length() - 1).replace('/', '.');
+            if (root.resolveRawClass(clsName) == null) {
+                return d; // library class, name is stable
+            }
+            return dims == 0 ? APP_TYPE : d.substring(0, dims) + APP_TYPE;
+        });
+    }
+
+    private static long add(long h, long value) {
+        for (int i = 0; i < 8; i++) {
+            h = (h ^ (value & 0xff)) * FNV_PRIME;
+            value >>>= 8;
+        }
+        return h;
+    }
+
+    private static long add(long h, String str) {
+        for (int i = 0; i < str.length(); i++) {
+            h = (h ^ str.charAt(i)) * FNV_PRIME;
+        }
+        return (h ^ 0xff) * FNV_PRIME; // terminator, so "ab"+"c" != "a"+"bc"
+    }
+}
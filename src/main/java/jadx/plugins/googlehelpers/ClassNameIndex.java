@@ -0,0 +1,192 @@
+package jadx.plugins.googlehelpers;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jadx.core.dex.nodes.ClassNode;
+import jadx.core.dex.nodes.RootNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Target class name to all classes proposing it. Lambdas, inner and split classes often log
+ * the name of their outer class, so the same name can be found for several classes.
+ * <p>
+ * Filled by scan workers without a global lock (one lock per name), then {@link #assign()} gives
+ * every proposing class a unique name: the class holding the logger in {@code <clinit>} keeps it,
+ * others get {@code $1}, {@code $2}, ... suffixes. Result doesn't depend on scan order.
+ * <p>
+ * Names of classes which don't propose them (e.g. kept inner class {@code a.B$1}) are never assigned,
+ * a proposal for such a name gets a suffix too. Class names are taken from the root once, on first use.
+ */
+final class ClassNameIndex {
+    private static final Logger LOG = LoggerFactory.getLogger(ClassNameIndex.class);
+
+    // names resolved in parallel only if there are enough of them
+    private static final long PARALLEL_THRESHOLD = 1024;
+
+    private static final Comparator<ClassScanResult> PREFERENCE = Comparator
+            .comparing((ClassScanResult r) -> !r.isClassNameFromClassInit())
+            .thenComparing(r -> r.getCls().getClassInfo().isInner())
+            .thenComparing(r -> r.getCls().getRawName());
+
+    private final RootNode root;
+    private final Map<String, List<ClassScanResult>> byName = new ConcurrentHashMap<>();
+    private final Map<ClassNode, String> assigned = new ConcurrentHashMap<>();
+    private final AtomicInteger collisions = new AtomicInteger();
+    private final Map<String, ClassNode> claimed = new ConcurrentHashMap<>(); // single class renames, applied batches
+    private volatile Map<String, ClassNode> existing; // raw and current names of all classes, lazy
+
+    ClassNameIndex(RootNode root) {
+        this.root = root;
+    }
+
+    static ClassNameIndex of(RootNode root, Iterable<ClassScanResult> results) {
+        ClassNameIndex index = new ClassNameIndex(root);
+        for (ClassScanResult result : results) {
+            index.add(result);
+        }
+        return index;
+    }
+
+    /**
+     * Safe to call from several threads.
+     */
+    void add(ClassScanResult result) {
+        if (result == null || result.getClassName() == null) {
+            return;
+        }
+        String name = RenameFromLogsPass.toClassAlias(result.getClassName());
+        List<ClassScanResult> list = byName.computeIfAbsent(name, k -> new ArrayList<>(1));
+        synchronized (list) {
+            list.add(result);
+        }
+    }
+
+    /**
+     * Resolve collisions, call once after all results are added.
+     */
+    void assign() {
+        getExisting();
+        byName.forEach(PARALLEL_THRESHOLD, this::assign);
+        if (collisions.get() != 0) {
+            LOG.info("google-helpers: {} class names found for several classes, suffixes added", collisions.get());
+        }
+    }
+
+    private void assign(String name, List<ClassScanResult> list) {
+        boolean nameTaken = isTakenByOther(name, list);
+        if (list.size() == 1 && !nameTaken) {
+            assigned.put(list.get(0).getCls(), name);
+            return;
+        }
+        collisions.incrementAndGet();
+        list.sort(PREFERENCE);
+        int suffix = 0;
+        for (int i = 0; i < list.size(); i++) {
+            ClassNode cls = list.get(i).getCls();
+            if (i == 0 && !nameTaken) {
+                assigned.put(cls, name);
+                continue;
+            }
+            String alt;
+            do {
+                alt = name + '$' + ++suffix;
+            } while (byName.containsKey(alt) // taken by another proposal, never assigned as suffix for it
+                    || isTakenByOther(alt, list));
+            LOG.debug("google-helpers: name {} already taken, using {} for {}", name, alt, cls.getRawName());
+            assigned.put(cls, alt);
+        }
+    }
+
+    /**
+     * @return true if a class not in {@code proposing} already has this name
+     */
+    private boolean isTakenByOther(String name, List<ClassScanResult> proposing) {
+        ClassNode holder = getExisting().get(name);
+        if (holder == null) {
+            return false;
+        }
+        for (ClassScanResult result : proposing) {
+            if (result.getCls() == holder) {
+                return false; // renamed in the same batch
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Names checked by {@link RootNode#searchClassByFullAlias(String)}, which scans all classes on each call,
+     * and raw names ({@code a.B$1} of inner classes).
+     */
+    private Map<String, ClassNode> getExisting() {
+        Map<String, ClassNode> map = existing;
+        if (map == null) {
+            synchronized (this) {
+                map = existing;
+                if (map == null) {
+                    map = new HashMap<>();
+                    for (ClassNode cls : root.getClasses(true)) {
+                        map.put(cls.getClassInfo().getRawName(), cls);
+                        map.put(cls.getClassInfo().getFullName(), cls);
+                        map.put(cls.getClassInfo().getAliasFullName(), cls);
+                    }
+                    existing = map;
+                }
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Incremental assignment for classes renamed one by one (lazy mode, include pass, popup action, daemon):
+     * the first class keeps the name, others get suffixes. Depends on rename order.
+     * Names of other classes at first claim are never given out, names freed by later renames are not reused.
+     * Safe to call from several threads.
+     *
+     * @return unique dotted name for class
+     */
+    String claim(ClassNode cls, String rawName) {
+        String name = RenameFromLogsPass.toClassAlias(rawName);
+        String alt = name;
+        int suffix = 0;
+        Map<String, ClassNode> existingNames = getExisting();
+        while (true) {
+            ClassNode holder = existingNames.get(alt);
+            ClassNode owner = holder == null || holder == cls ? claimed.putIfAbsent(alt, cls) : holder;
+            if (owner == null || owner == cls) {
+                return alt;
+            }
+            if (suffix == 0) {
+                collisions.incrementAndGet();
+            }
+            alt = name + '$' + ++suffix;
+        }
+    }
+
+    /**
+     * Record names given by an applied batch, so a later {@link #claim} by another class doesn't take them
+     * and a class claiming its proposal again gets the name it was given (e.g. {@code app.Foo$1}).
+     */
+    void markApplied(RenameBatch batch) {
+        for (ClassNode cls : batch.getRenamed()) {
+            claimed.put(cls.getClassInfo().getAliasFullName(), cls);
+        }
+    }
+
+    /**
+     * @return unique dotted name for class, null if nothing was found for it
+     */
+    String getAssigned(ClassNode cls) {
+        return assigned.get(cls);
+    }
+
+    int getCollisions() {
+        return collisions.get();
+    }
+}
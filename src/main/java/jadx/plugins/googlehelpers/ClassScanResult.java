@@ -0,0 +1,184 @@
+package jadx.plugins.googlehelpers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import jadx.core.dex.nodes.ClassNode;
+import jadx.core.dex.nodes.MethodNode;
+
+/**
+ * Rename proposals collected while scanning one class.
+ * Filled by a single scanning thread, applied later by {@link RenameFromLogsPass#applyScanResult}.
+ */
+public final class ClassScanResult {
+    private final ClassNode cls;
+    private String className; // best found name, null if none
+    private int classNamePriority = -1;
+    private boolean classNameFromClassInit; // found in <clinit>, where logger fields are set
+    private int classNameVotes; // number of calls with className
+    private Map<String, Vote> otherVotes; // all names with classNamePriority, only if they differ
+    private List<MethodRename> methodRenames = Collections.emptyList();
+    private List<MethodNode> deferred = Collections.emptyList(); // over scan budget, not scanned yet
+    private final ScanStats stats = new ScanStats();
+    private long hash; // structural hash from ClassHasher, 0 if not computed
+    private long[] methodHashes; // in cls.getMethods() order
+
+    ClassScanResult(ClassNode cls) {
+        this.cls = cls;
+    }
+
+    void addClassName(String name) {
+        addClassName(name, 0, false);
+    }
+
+    /**
+     * Vote for a class name: names from the pattern with the highest priority win, among them
+     * the one found in {@code <clinit>}, then the one found most times, then the first found.
+     */
+    void addClassName(String name, int priority, boolean fromClassInit) {
+        if (priority < classNamePriority) {
+            return;
+        }
+        if (priority > classNamePriority) {
+            className = name;
+            classNamePriority = priority;
+            classNameFromClassInit = fromClassInit;
+            classNameVotes = 1;
+            otherVotes = null;
+            return;
+        }
+        if (otherVotes == null) {
+            if (name.equals(className)) {
+                classNameVotes++;
+                classNameFromClassInit |= fromClassInit;
+                return;
+            }
+            // conflicting proposals, count votes per name from now on
+            otherVotes = new LinkedHashMap<>();
+            otherVotes.put(className, new Vote(classNameVotes, classNameFromClassInit));
+        }
+        Vote vote = otherVotes.computeIfAbsent(name, k -> new Vote(0, false));
+        vote.count++;
+        vote.fromClassInit |= fromClassInit;
+        Vote best = null;
+        for (Map.Entry<String, Vote> entry : otherVotes.entrySet()) {
+            Vote v = entry.getValue();
+            if (best == null || v.beats(best)) {
+                best = v;
+                className = entry.getKey();
+            }
+        }
+        classNameVotes = best.count;
+        classNameFromClassInit = best.fromClassInit;
+    }
+
+    void addMethodName(MethodNode mth, String name) {
+        if (methodRenames.isEmpty()) {
+            methodRenames = new ArrayList<>();
+        }
+        methodRenames.add(new MethodRename(mth, name));
+    }
+
+    void defer(MethodNode mth) {
+        if (deferred.isEmpty()) {
+            deferred = new ArrayList<>();
+        }
+        deferred.add(mth);
+        stats.methodsDeferred++;
+    }
+
+    List<MethodNode> getDeferred() {
+        return deferred;
+    }
+
+    void clearDeferred() {
+        deferred = Collections.emptyList();
+    }
+
+    public ClassNode getCls() {
+        return cls;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    int getClassNamePriority() {
+        return classNamePriority;
+    }
+
+    boolean isClassNameFromClassInit() {
+        return classNameFromClassInit;
+    }
+
+    public List<MethodRename> getMethodRenames() {
+        return methodRenames;
+    }
+
+    void setHashes(long hash, long[] methodHashes) {
+        this.hash = hash;
+        this.methodHashes = methodHashes;
+    }
+
+    long getHash() {
+        return hash;
+    }
+
+    long[] getMethodHashes() {
+        return methodHashes;
+    }
+
+    long getMethodHash(MethodNode mth) {
+        if (methodHashes == null) {
+            return 0;
+        }
+        int idx = cls.getMethods().indexOf(mth);
+        return idx == -1 ? 0 : methodHashes[idx];
+    }
+
+    ScanStats getStats() {
+        return stats;
+    }
+
+    public boolean isEmpty() {
+        return className == null && methodRenames.isEmpty();
+    }
+
+    private static final class Vote {
+        int count;
+        boolean fromClassInit;
+
+        Vote(int count, boolean fromClassInit) {
+            this.count = count;
+            this.fromClassInit = fromClassInit;
+        }
+
+        boolean beats(Vote other) {
+            if (fromClassInit != other.fromClassInit) {
+                return fromClassInit;
+            }
+            return count > other.count;
+        }
+    }
+
+    public static final class MethodRename {
+        private final MethodNode mth;
+        private final String name;
+
+        MethodRename(MethodNode mth, String name) {
+            this.mth = mth;
+            this.name = name;
+        }
+
+        public MethodNode getMth() {
+            return mth;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+}
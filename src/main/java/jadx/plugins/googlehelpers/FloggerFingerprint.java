@@ -0,0 +1,175 @@
+package jadx.plugins.googlehelpers;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import jadx.core.codegen.TypeGen;
+import jadx.core.dex.instructions.args.ArgType;
+import jadx.core.dex.nodes.ClassNode;
+import jadx.core.dex.nodes.MethodNode;
+import jadx.core.dex.nodes.RootNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Find Flogger methods by structure when its classes are obfuscated or shaded:
+ * <ul>
+ * <li>setLocation: interface method {@code (String, String, int, String)} returning the interface,
+ * where the interface is returned by some method taking {@code java.util.logging.Level}</li>
+ * <li>factory: static {@code (String)} method returning its own class, where the class or one of its
+ * superclasses declares such a {@code (Level)} method returning the setLocation interface</li>
+ * </ul>
+ * A factory shape alone ({@code parse(String)}, {@code of(String)}) is common in any app, so nothing is
+ * found without a setLocation match. Several setLocation interfaces are ambiguous, nothing is found either.
+ * <p>
+ * Only method signatures are checked (no code is loaded), in one parallel pass over all classes,
+ * done once per root (see {@link #forRoot}). Factories are ranked by the number of callers from jadx usage info,
+ * methods without callers are ignored.
+ */
+final class FloggerFingerprint {
+    private static final Logger LOG = LoggerFactory.getLogger(FloggerFingerprint.class);
+
+    private static final ArgType LEVEL_TYPE = ArgType.object("java.util.logging.Level");
+
+    // refs only, so cached results don't keep nodes of a closed root
+    private static final Map<RootNode, FloggerFingerprint> BY_ROOT = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final RenameFromLogsPass.MethodRef factoryRef;
+    private final RenameFromLogsPass.MethodRef locationRef;
+
+    private FloggerFingerprint(MethodNode factory, MethodNode location) {
+        this.factoryRef = toRef(factory);
+        this.locationRef = toRef(location);
+    }
+
+    /**
+     * Search result for this root, searched on first call.
+     */
+    static FloggerFingerprint forRoot(RootNode root) {
+        return BY_ROOT.computeIfAbsent(root, FloggerFingerprint::search);
+    }
+
+    static FloggerFingerprint search(RootNode root) {
+        long start = System.currentTimeMillis();
+        Queue<MethodNode> factories = new ConcurrentLinkedQueue<>();
+        Queue<MethodNode> locations = new ConcurrentLinkedQueue<>();
+        // return types of (Level) methods by declaring class
+        Map<ArgType, Set<ArgType>> levelMethods = new ConcurrentHashMap<>();
+        List<ClassNode> classes = root.getClasses();
+        classes.parallelStream().forEach(cls -> {
+            ArgType self = cls.getClassInfo().getType();
+            boolean isInterface = cls.getAccessFlags().isInterface();
+            boolean isEnum = cls.getAccessFlags().isEnum(); // valueOf(String) has the factory shape
+            for (MethodNode mth : cls.getMethods()) {
+                List<ArgType> args = mth.getArgTypes();
+                ArgType ret = mth.getReturnType();
+                if (args.size() == 1) {
+                    ArgType arg = args.get(0);
+                    if (arg.equals(LEVEL_TYPE) && ret.isObject()) {
+                        levelMethods.computeIfAbsent(self, t -> ConcurrentHashMap.newKeySet()).add(ret);
+                    } else if (!isEnum && arg.equals(ArgType.STRING) && ret.equals(self)
+                            && mth.getAccessFlags().isStatic()) {
+                        factories.add(mth);
+                    }
+                } else if (isInterface && args.size() == 4 && ret.equals(self) && isLocationArgs(args)) {
+                    locations.add(mth);
+                }
+            }
+        });
+        locations.removeIf(mth -> !isLevelReturnType(levelMethods, mth.getParentClass().getClassInfo().getType()));
+        MethodNode location = null;
+        if (locations.size() == 1) {
+            location = locations.peek();
+        } else if (locations.size() > 1) {
+            LOG.info("google-helpers: fingerprint search found {} setLocation candidates, none used: {}",
+                    locations.size(), locations);
+        }
+        MethodNode factory = null;
+        if (location != null) {
+            ArgType iface = location.getParentClass().getClassInfo().getType();
+            factories.removeIf(mth -> !declaresLevelMethod(root, mth.getParentClass(), levelMethods, iface));
+            factory = mostUsed(factories);
+        }
+        LOG.info("google-helpers: fingerprint search over {} classes in {} ms: factory={} ({} candidates), location={}",
+                classes.size(), System.currentTimeMillis() - start, factory, factories.size(), location);
+        return new FloggerFingerprint(factory, location);
+    }
+
+    private static boolean isLocationArgs(List<ArgType> args) {
+        return args.get(0).equals(ArgType.STRING)
+                && args.get(1).equals(ArgType.STRING)
+                && args.get(2).equals(ArgType.INT)
+                && args.get(3).equals(ArgType.STRING);
+    }
+
+    private static boolean isLevelReturnType(Map<ArgType, Set<ArgType>> levelMethods, ArgType type) {
+        for (Set<ArgType> returnTypes : levelMethods.values()) {
+            if (returnTypes.contains(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if {@code cls} or one of its superclasses declares a {@code (Level)} method returning {@code iface}
+     */
+    private static boolean declaresLevelMethod(RootNode root, ClassNode cls, Map<ArgType, Set<ArgType>> levelMethods,
+            ArgType iface) {
+        ClassNode cur = cls;
+        for (int depth = 0; cur != null && depth < 32; depth++) { // depth limit for broken hierarchies
+            Set<ArgType> returnTypes = levelMethods.get(cur.getClassInfo().getType());
+            if (returnTypes != null && returnTypes.contains(iface)) {
+                return true;
+            }
+            ArgType superType = cur.getSuperClass();
+            cur = superType != null ? root.resolveClass(superType) : null;
+        }
+        return false;
+    }
+
+    /**
+     * Candidate with most callers, ties broken by raw name so the result doesn't depend on thread scheduling.
+     */
+    private static MethodNode mostUsed(Queue<MethodNode> candidates) {
+        MethodNode best = null;
+        int bestUses = 0;
+        for (MethodNode mth : candidates) {
+            int uses = mth.getUseIn().size();
+            if (uses > bestUses
+                    || (uses == bestUses && best != null
+                            && mth.getMethodInfo().getRawFullId().compareTo(best.getMethodInfo().getRawFullId()) < 0)) {
+                best = mth;
+                bestUses = uses;
+            }
+        }
+        return best;
+    }
+
+    RenameFromLogsPass.MethodRef getFactoryRef() {
+        return factoryRef;
+    }
+
+    RenameFromLogsPass.MethodRef getLocationRef() {
+        return locationRef;
+    }
+
+    private static RenameFromLogsPass.MethodRef toRef(MethodNode mth) {
+        if (mth == null) {
+            return null;
+        }
+        List<ArgType> argTypes = mth.getArgTypes();
+        String[] args = new String[argTypes.size()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = TypeGen.signature(argTypes.get(i));
+        }
+        return new RenameFromLogsPass.MethodRef(mth.getParentClass().getClassInfo().getFullName(),
+                mth.getMethodInfo().getName(), true, args, TypeGen.signature(mth.getReturnType()));
+    }
+}
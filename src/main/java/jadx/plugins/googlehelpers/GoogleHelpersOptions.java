@@ -3,14 +3,41 @@ package jadx.plugins.googlehelpers;
 import jadx.api.plugins.options.impl.BasePluginOptionsBuilder;
 
 public class GoogleHelpersOptions extends BasePluginOptionsBuilder {
+    // libraries kept unobfuscated in Google apps, so there is nothing to rename
+    static final String DEFAULT_EXCLUDE = "android,androidx,kotlin,kotlinx,java,javax,com.google.protobuf,com.google.common";
+
     private String targetClass = ""; // process only this class if set (dot or slash separated)
 
+    // comma separated package/class prefixes or globs, see ClassFilter
+    private String include = "";
+    private String exclude = DEFAULT_EXCLUDE;
+
     // Full method refs like: com/google/common/flogger/GoogleLogger->c(Ljava/lang/String;)Lcom/google/common/flogger/GoogleLogger;
     private String factoryMethodRef = "";
 
     // e.g.: a/b/C->x(Ljava/lang/String;Ljava/lang/String;ILjava/lang/String;)V
     private String locationMethodRef = "";
 
+    // more logger calls to take names from, see CallPattern, e.g.: android/util/Log.d=0
+    private String patterns = "";
+
+    private boolean parallelScan = true; // scan classes on jadx's thread count in after-load auto-rename
+    private boolean unloadAfterScan = true; // drop method instructions loaded only for auto-rename scan
+    private boolean usageScan = true; // scan only callers of logger methods from jadx usage info
+    private boolean useCache = true; // reuse auto-rename results saved for the same input
+    private String previousCache = ""; // rename cache file of previous app version, see ClassHasher
+    private boolean classNamesOnly = false; // skip method renames, stop each class at the first confident name
+    private int methodBudget = 10000; // code units, bigger methods are scanned last, see ScanBudget; 0 for no limit
+    private int classBudgetMs = 0; // per class scan time, then other methods are deferred; 0 for no limit
+    private int scanDeadlineSec = 0; // after-load scan time limit; 0 for no limit
+    private int shards = 0; // worker processes for after-load scan, see ShardedScan; 0 or 1 to scan in process
+    private String shardBy = "package"; // group classes into shards by 'package' or 'dex'
+    private String shardWorkerHeap = ""; // -Xmx value for shard workers, empty for JVM default
+    private boolean lazyRename = false; // rename classes in decompile pass instead of after-load scan
+    private boolean backgroundScan = true; // in jadx-gui run auto-rename scan after load without blocking UI
+    private String metricsFile = ""; // JSON summary of after-load pass, empty for default location
+    private boolean measureRetainedHeap = false; // full GC around the scan for heap metrics
+
     @Override
     public void registerOptions() {
         strOption(GoogleHelpersPlugin.PLUGIN_ID + ".targetClass")
@@ -18,6 +45,16 @@ public class GoogleHelpersOptions extends BasePluginOptionsBuilder {
                 .defaultValue("")
                 .setter(v -> targetClass = v);
 
+        strOption(GoogleHelpersPlugin.PLUGIN_ID + ".include")
+                .description("scan only these packages/classes, comma separated prefixes or globs, e.g. com.example,a.b.*Impl")
+                .defaultValue("")
+                .setter(v -> include = v);
+
+        strOption(GoogleHelpersPlugin.PLUGIN_ID + ".exclude")
+                .description("skip these packages/classes, comma separated prefixes or globs")
+                .defaultValue(DEFAULT_EXCLUDE)
+                .setter(v -> exclude = v);
+
         strOption(GoogleHelpersPlugin.PLUGIN_ID + ".factoryMethodRef")
                 .description("factory method ref\ne.g. com/google/common/flogger/GoogleLogger->c(Ljava/lang/String;)Lcom/google/common/flogger/GoogleLogger;")
                 .defaultValue("")
@@ -27,6 +64,97 @@ public class GoogleHelpersOptions extends BasePluginOptionsBuilder {
                 .description("location method ref\ne.g. a/b/C->x(Ljava/lang/String;Ljava/lang/String;ILjava/lang/String;)V")
                 .defaultValue("")
                 .setter(v -> locationMethodRef = v);
+
+        strOption(GoogleHelpersPlugin.PLUGIN_ID + ".patterns")
+                .description("extra logger calls, '|' separated ref=classArg[,methodArg] entries\ne.g. android/util/Log.d=0|a/b/L->t(Ljava/lang/String;Ljava/lang/String;)V=0,1")
+                .defaultValue("")
+                .setter(v -> patterns = v);
+
+        boolOption(GoogleHelpersPlugin.PLUGIN_ID + ".parallelScan")
+                .description("scan classes in parallel during auto-rename (uses jadx threads count)")
+                .defaultValue(true)
+                .setter(v -> parallelScan = v);
+
+        boolOption(GoogleHelpersPlugin.PLUGIN_ID + ".unloadAfterScan")
+                .description("unload method instructions after auto-rename scan to keep memory usage flat")
+                .defaultValue(true)
+                .setter(v -> unloadAfterScan = v);
+
+        boolOption(GoogleHelpersPlugin.PLUGIN_ID + ".usageScan")
+                .description("scan only methods calling logger methods according to jadx usage info")
+                .defaultValue(true)
+                .setter(v -> usageScan = v);
+
+        boolOption(GoogleHelpersPlugin.PLUGIN_ID + ".useCache")
+                .description("save auto-rename results in plugin cache dir and reuse them for the same input")
+                .defaultValue(true)
+                .setter(v -> useCache = v);
+
+        strOption(GoogleHelpersPlugin.PLUGIN_ID + ".previousCache")
+                .description("rename cache file (.bin) saved for a previous version of the same app;\n"
+                        + "classes unchanged since then take previous renames, only new and changed classes are scanned")
+                .defaultValue("")
+                .setter(v -> previousCache = v);
+
+        boolOption(GoogleHelpersPlugin.PLUGIN_ID + ".classNamesOnly")
+                .description("rename only classes: stop scanning a class at the first confident name\n"
+                        + "(<clinit>, constructors, then smallest methods first); methods are renamed only by GUI actions")
+                .defaultValue(false)
+                .setter(v -> classNamesOnly = v);
+
+        intOption(GoogleHelpersPlugin.PLUGIN_ID + ".methodBudget")
+                .description("methods with more code units (dex instruction words) are scanned after all other classes;\n"
+                        + "0 for no limit")
+                .defaultValue(10000)
+                .setter(v -> methodBudget = v);
+
+        intOption(GoogleHelpersPlugin.PLUGIN_ID + ".classBudgetMs")
+                .description("scan time per class, rest of its methods are scanned after all other classes; 0 for no limit")
+                .defaultValue(0)
+                .setter(v -> classBudgetMs = v);
+
+        intOption(GoogleHelpersPlugin.PLUGIN_ID + ".scanDeadlineSec")
+                .description("time limit for after-load scan, classes and deferred methods left are not scanned; 0 for no limit")
+                .defaultValue(0)
+                .setter(v -> scanDeadlineSec = v);
+
+        intOption(GoogleHelpersPlugin.PLUGIN_ID + ".shards")
+                .description("run after-load scan in this many worker processes, each loading only its part of method code;\n"
+                        + "0 or 1 to scan in jadx process")
+                .defaultValue(0)
+                .setter(v -> shards = v);
+
+        strOption(GoogleHelpersPlugin.PLUGIN_ID + ".shardBy")
+                .description("how classes are split between shard workers: 'package' or 'dex'")
+                .defaultValue("package")
+                .setter(v -> shardBy = v);
+
+        strOption(GoogleHelpersPlugin.PLUGIN_ID + ".shardWorkerHeap")
+                .description("max heap of each shard worker, e.g. 2g (default: JVM default)")
+                .defaultValue("")
+                .setter(v -> shardWorkerHeap = v);
+
+        boolOption(GoogleHelpersPlugin.PLUGIN_ID + ".lazyRename")
+                .description("rename each class just before it is decompiled instead of scanning all classes after load;\n"
+                        + "classes decompiled earlier may still show old names of referenced classes")
+                .defaultValue(false)
+                .setter(v -> lazyRename = v);
+
+        boolOption(GoogleHelpersPlugin.PLUGIN_ID + ".backgroundScan")
+                .description("in jadx-gui run auto-rename in background after load, renames are applied in batches")
+                .defaultValue(true)
+                .setter(v -> backgroundScan = v);
+
+        strOption(GoogleHelpersPlugin.PLUGIN_ID + ".metricsFile")
+                .description("path for JSON summary of auto-rename counters and timers (default: in plugin cache dir)")
+                .defaultValue("")
+                .setter(v -> metricsFile = v);
+
+        boolOption(GoogleHelpersPlugin.PLUGIN_ID + ".measureRetainedHeap")
+                .description("run full GC before and after auto-rename scan to report heap retained by the scan in metrics;\n"
+                        + "slows down the scan, for measurements only")
+                .defaultValue(false)
+                .setter(v -> measureRetainedHeap = v);
     }
 
     public String getTargetClass() {
@@ -40,4 +168,80 @@ public class GoogleHelpersOptions extends BasePluginOptionsBuilder {
     public String getLocationMethodRef() {
         return locationMethodRef;
     }
+
+    public String getPatterns() {
+        return patterns;
+    }
+
+    public boolean isParallelScan() {
+        return parallelScan;
+    }
+
+    public boolean isUnloadAfterScan() {
+        return unloadAfterScan;
+    }
+
+    public String getInclude() {
+        return include;
+    }
+
+    public String getExclude() {
+        return exclude;
+    }
+
+    public boolean isUsageScan() {
+        return usageScan;
+    }
+
+    public boolean isUseCache() {
+        return useCache;
+    }
+
+    public String getPreviousCache() {
+        return previousCache;
+    }
+
+    public boolean isClassNamesOnly() {
+        return classNamesOnly;
+    }
+
+    public int getMethodBudget() {
+        return methodBudget;
+    }
+
+    public int getClassBudgetMs() {
+        return classBudgetMs;
+    }
+
+    public int getScanDeadlineSec() {
+        return scanDeadlineSec;
+    }
+
+    public int getShards() {
+        return shards;
+    }
+
+    public String getShardBy() {
+        return shardBy;
+    }
+
+    public String getShardWorkerHeap() {
+        return shardWorkerHeap;
+    }
+
+    public boolean isLazyRename() {
+        return lazyRename;
+    }
+
+    public boolean isBackgroundScan() {
+        return backgroundScan;
+    }
+
+    public String getMetricsFile() {
+        return metricsFile;
+    }
+
+    public boolean isMeasureRetainedHeap() {
+        return measureRetainedHeap;
+    }
 }
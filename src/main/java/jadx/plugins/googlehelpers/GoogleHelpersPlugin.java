@@ -1,14 +1,22 @@
 package jadx.plugins.googlehelpers;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import jadx.api.JadxArgs;
+import jadx.api.JadxDecompiler;
 import jadx.api.JavaClass;
 import jadx.api.JavaNode;
 import jadx.api.plugins.JadxPlugin;
 import jadx.api.plugins.JadxPluginContext;
 import jadx.api.plugins.JadxPluginInfo;
 import jadx.api.plugins.JadxPluginInfoBuilder;
+import jadx.api.plugins.events.JadxEvents;
 import jadx.api.plugins.gui.JadxGuiContext;
 import jadx.api.plugins.pass.impl.SimpleAfterLoadPass;
 import jadx.core.dex.nodes.ClassNode;
+import jadx.core.dex.nodes.RootNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -16,9 +24,17 @@ public class GoogleHelpersPlugin implements JadxPlugin {
     public static final String PLUGIN_ID = "google-helpers";
     private static final Logger LOG = LoggerFactory.getLogger(GoogleHelpersPlugin.class);
 
+    // scan results applied per UI event in background mode
+    private static final int APPLY_BATCH_SIZE = 200;
+
     private final GoogleHelpersOptions options = new GoogleHelpersOptions();
-    private volatile RenameFromLogsPass.MethodRef cachedFactoryRef;
-    private volatile RenameFromLogsPass.MethodRef cachedLocationRef;
+    // resolved refs and compiled patterns of the loaded root, shared by all passes and GUI action
+    private final RenameContext.Holder contexts = new RenameContext.Holder(options);
+    // scan results per class, reused by all entry points until class or project reload
+    private final ScanResultCache scanCache = new ScanResultCache();
+    private final RenameFromLogsPass renamePass = new RenameFromLogsPass(options, scanCache, contexts);
+    // progress of running background auto-rename, null if none
+    private volatile RenameProgress backgroundRename;
 
 	@Override
     public JadxPluginInfo getPluginInfo() {
@@ -36,45 +52,18 @@ public class GoogleHelpersPlugin implements JadxPlugin {
         context.registerOptions(options);
         LOG.info("google-helpers: registering decompile pass (targetClass={}, factoryRef={}, locationRef={})",
                 options.getTargetClass(), options.getFactoryMethodRef(), options.getLocationMethodRef());
-        context.addPass(new RenameFromLogsPass(options));
+        context.addPass(renamePass);
+        context.events().addListener(JadxEvents.RELOAD_PROJECT, e -> {
+            cancelBackgroundRename();
+            scanCache.clear();
+            contexts.release();
+        });
 
         JadxGuiContext gui = context.getGuiContext();
         // Auto-run on load for all classes (after load)
         final JadxGuiContext guiCtx = gui; // capture for use inside pass
-        context.addPass(new SimpleAfterLoadPass("GoogleHelpersAutoRename", decompiler -> {
-            LOG.info("google-helpers: running auto-rename after load");
-            var root = decompiler.getRoot();
-            // Resolve refs using options or discovery
-            RenameFromLogsPass.MethodRef factory = options.getFactoryMethodRef().isEmpty()
-                    ? RenameFromLogsPass.discoverGoogleLoggerFactory(root)
-                    : RenameFromLogsPass.MethodRef.parse(options.getFactoryMethodRef());
-            RenameFromLogsPass.MethodRef location = options.getLocationMethodRef().isEmpty()
-                    ? RenameFromLogsPass.discoverILoggerSetLocation(root)
-                    : RenameFromLogsPass.MethodRef.parse(options.getLocationMethodRef());
-            // cache for later GUI action reuse
-            cachedFactoryRef = factory;
-            cachedLocationRef = location;
-            int renamed = 0;
-            for (ClassNode cls : root.getClasses(true)) {
-                try {
-                    if (RenameFromLogsPass.renameClassFromLogs(cls, factory, location)) {
-                        renamed++;
-                    }
-                } catch (Throwable t) {
-                    LOG.debug("google-helpers: auto-rename error for {}: {}", cls.getFullName(), t.toString());
-                }
-            }
-            if (renamed > 0) {
-                LOG.info("google-helpers: auto-rename completed, renamed {} classes", renamed);
-                // update packages after renames
-                root.runPackagesUpdate();
-                if (guiCtx != null) {
-                    guiCtx.uiRun(guiCtx::reloadAllTabs);
-                }
-            } else {
-                LOG.info("google-helpers: auto-rename completed, no matches");
-            }
-        }));
+        context.addPass(new SimpleAfterLoadPass("GoogleHelpersAutoRename",
+                decompiler -> runAutoRename(context, decompiler, guiCtx)));
 
         if (gui != null) {
             // Code editor context menu (always enabled)
@@ -85,9 +74,10 @@ public class GoogleHelpersPlugin implements JadxPlugin {
                 JavaClass jCls = (jNode instanceof JavaClass) ? (JavaClass) jNode : jNode.getDeclaringClass();
                 if (jCls == null) return;
                 ClassNode cls = jCls.getClassNode();
-                RenameFromLogsPass.MethodRef factory = resolveFactory(cls);
-                RenameFromLogsPass.MethodRef location = resolveLocation(cls);
-                boolean changed = RenameFromLogsPass.renameClassFromLogs(cls, factory, location);
+                // explicit request, rename methods too
+                RenameContext renameCtx = contexts.get(cls.root());
+                ClassScanResult result = scanCache.scan(cls, renameCtx.getAllPatterns(), false);
+                boolean changed = RenameFromLogsPass.applyClaimed(renameCtx, result);
                 if (changed) {
                     LOG.info("google-helpers: class renamed, refreshing tab");
                     gui.reloadActiveTab();
@@ -95,32 +85,260 @@ public class GoogleHelpersPlugin implements JadxPlugin {
                     LOG.info("google-helpers: no changes made");
                 }
             });
+            gui.addMenuAction("Google helpers: Rename methods from logs", () -> {
+                // separate stage for 'classNamesOnly' mode: full scan with method names, in background
+                RootNode root = context.getDecompiler().getRoot();
+                startBackgroundRename(context, root, null, new RenameMetrics(), gui, true);
+            });
+            gui.addMenuAction("Google helpers: Cancel auto-rename", this::cancelBackgroundRename);
         } else {
             LOG.debug("google-helpers: GUI context not available (CLI mode)");
         }
     }
 
-    private RenameFromLogsPass.MethodRef resolveFactory(ClassNode cls) {
-        if (!options.getFactoryMethodRef().isEmpty()) {
-            return RenameFromLogsPass.MethodRef.parse(options.getFactoryMethodRef());
+    @Override
+    public void unload() {
+        // drop references to the closed project nodes
+        cancelBackgroundRename();
+        scanCache.clear();
+        contexts.release();
+    }
+
+    private void runAutoRename(JadxPluginContext context, JadxDecompiler decompiler, JadxGuiContext guiCtx) {
+        if (options.isLazyRename()) {
+            LOG.info("google-helpers: lazy rename enabled, classes are renamed when decompiled");
+            return;
         }
-        RenameFromLogsPass.MethodRef cached = cachedFactoryRef;
-        if (cached == null) {
-            cached = RenameFromLogsPass.discoverGoogleLoggerFactory(cls.root());
-            cachedFactoryRef = cached; // may be null
+        LOG.info("google-helpers: running auto-rename after load");
+        var root = decompiler.getRoot();
+        RenameMetrics metrics = new RenameMetrics();
+        RenameCache cache = openCache(context, decompiler);
+        RenameCache.Entry cached;
+        try (RenameMetrics.Phase ignored = metrics.phase("cacheLoad")) {
+            cached = cache != null ? cache.load() : null;
+        }
+        metrics.setCacheHit(cached != null);
+        RenameCache.Entry sharded = cached == null && options.getShards() > 1 ? runShardedScan(decompiler, metrics) : null;
+        if (sharded != null && cache != null && sharded.isComplete()) {
+            cache.save(sharded);
+        }
+        RenameBatch applied;
+        if (cached != null) {
+            // warm load: refs and renames are known, no discovery or scan needed
+            LOG.info("google-helpers: applying {} cached rename entries from {}", cached.getRenames().size(), cache.getFile());
+            applied = applyEntry(root, cached, metrics);
+        } else if (sharded != null) {
+            applied = applyEntry(root, sharded, metrics);
+        } else if (guiCtx != null && options.isBackgroundScan()) {
+            startBackgroundRename(context, root, cache, metrics, guiCtx, false);
+            return;
+        } else {
+            // Resolve refs using options or discovery, once for this root
+            RenameContext renameCtx;
+            try (RenameMetrics.Phase ignored = metrics.phase("discovery")) {
+                renameCtx = contexts.get(root);
+            }
+            AutoRenameRunner runner = new AutoRenameRunner(renameCtx.getPatterns(), options.isUnloadAfterScan(), metrics, scanCache);
+            runner.setHashClasses(cache != null);
+            runner.setPrevious(loadPrevious(metrics));
+            runner.setBudget(ScanBudget.fromOptions(options));
+            runner.setMeasureRetainedHeap(options.isMeasureRetainedHeap());
+            applied = runner.run(root, options.isParallelScan(), ClassFilter.fromOptions(options), options.isUsageScan());
+            if (cache != null && runner.isComplete()) {
+                cache.save(new RenameCache.Entry(RenameFromLogsPass.MethodRef.toStringOrNull(renameCtx.getFactoryRef()),
+                        RenameFromLogsPass.MethodRef.toStringOrNull(renameCtx.getLocationRef()), runner.getRenameMap()));
+            }
+        }
+        // later single class renames (include, popup) must not take the names given here
+        contexts.get(root).getNames().markApplied(applied);
+        if (!applied.getRenamed().isEmpty()) {
+            LOG.info("google-helpers: auto-rename completed, renamed {} classes", applied.getRenamed().size());
+            // update packages once after all renames
+            try (RenameMetrics.Phase ignored = metrics.phase("packagesUpdate")) {
+                RenameBatch.updatePackages(root, applied.isPackagesChanged());
+            }
+            if (guiCtx != null) {
+                guiCtx.uiRun(guiCtx::reloadAllTabs);
+            }
+        } else {
+            LOG.info("google-helpers: auto-rename completed, no matches");
+        }
+        reportMetrics(context, metrics);
+    }
+
+    private RenameBatch applyEntry(RootNode root, RenameCache.Entry entry, RenameMetrics metrics) {
+        contexts.set(RenameContext.of(root, options,
+                RenameFromLogsPass.MethodRef.parse(entry.getFactoryRef()),
+                RenameFromLogsPass.MethodRef.parse(entry.getLocationRef())));
+        return AutoRenameRunner.applyAll(root, entry.getRenames().resolve(root), metrics);
+    }
+
+    /**
+     * Scan in worker processes, see {@link ShardedScan}.
+     *
+     * @return merged renames, null if workers failed and the scan should run in process
+     */
+    private RenameCache.Entry runShardedScan(JadxDecompiler decompiler, RenameMetrics metrics) {
+        LOG.info("google-helpers: running auto-rename scan in {} worker processes", options.getShards());
+        try (RenameMetrics.Phase ignored = metrics.phase("shardedScan")) {
+            JadxArgs args = decompiler.getArgs();
+            return ShardedScan.run(args.getInputFiles(), args.getPluginOptions(), options, args.getThreadsCount());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            LOG.warn("google-helpers: sharded scan failed, scanning in process: {}", e.toString());
+            return null;
         }
-        return cached;
     }
 
-    private RenameFromLogsPass.MethodRef resolveLocation(ClassNode cls) {
-        if (!options.getLocationMethodRef().isEmpty()) {
-            return RenameFromLogsPass.MethodRef.parse(options.getLocationMethodRef());
+    /**
+     * Scan on a separate thread so jadx-gui stays usable, then apply renames on UI thread in batches.
+     * Only tabs of renamed classes and their users are refreshed.
+     *
+     * @param allPatterns rename methods too, even in 'classNamesOnly' mode
+     */
+    private void startBackgroundRename(JadxPluginContext context, RootNode root, RenameCache cache,
+            RenameMetrics metrics, JadxGuiContext guiCtx, boolean allPatterns) {
+        cancelBackgroundRename();
+        RenameProgress progress = new RenameProgress();
+        backgroundRename = progress;
+        CallPatterns patterns;
+        try (RenameMetrics.Phase ignored = metrics.phase("discovery")) {
+            RenameContext renameCtx = contexts.get(root);
+            patterns = allPatterns ? renameCtx.getAllPatterns() : renameCtx.getPatterns();
+        }
+        // set before the thread starts: classes decompiled from now on are scanned by the decompile pass
+        renamePass.setBackgroundPatterns(patterns);
+        Thread thread = new Thread(() -> {
+            try {
+                runBackgroundRename(context, root, cache, metrics, guiCtx, progress, patterns, allPatterns);
+            } catch (Throwable t) {
+                LOG.error("google-helpers: background auto-rename failed", t);
+            } finally {
+                if (backgroundRename == progress || backgroundRename == null) {
+                    renamePass.setBackgroundPatterns(null);
+                }
+            }
+        }, "google-helpers-auto-rename");
+        thread.setDaemon(true);
+        thread.start();
+        LOG.info("google-helpers: auto-rename started in background");
+    }
+
+    private void runBackgroundRename(JadxPluginContext context, RootNode root, RenameCache cache, RenameMetrics metrics,
+            JadxGuiContext guiCtx, RenameProgress progress, CallPatterns patterns, boolean allPatterns) {
+        RenameContext renameCtx = contexts.get(root);
+        // classes can be decompiled during the scan, so keep loaded instructions
+        AutoRenameRunner runner = new AutoRenameRunner(patterns, false, metrics, scanCache);
+        runner.setConcurrentDecompile(true);
+        runner.setProgress(progress);
+        runner.setHashClasses(cache != null);
+        // previous version map can lack method names if it was made in 'classNamesOnly' mode
+        runner.setPrevious(allPatterns ? null : loadPrevious(metrics));
+        runner.setBudget(ScanBudget.fromOptions(options));
+        runner.setMeasureRetainedHeap(options.isMeasureRetainedHeap());
+        if (!runner.scan(root, options.isParallelScan(), ClassFilter.fromOptions(options), options.isUsageScan())) {
+            return;
+        }
+        if (cache != null && runner.isComplete()) {
+            cache.save(new RenameCache.Entry(RenameFromLogsPass.MethodRef.toStringOrNull(renameCtx.getFactoryRef()),
+                    RenameFromLogsPass.MethodRef.toStringOrNull(renameCtx.getLocationRef()), runner.getRenameMap()));
+        }
+        List<ClassNode> renamed = new ArrayList<>(); // used only on UI thread
+        boolean[] packagesChanged = { false };
+        int count = runner.getResultsCount();
+        for (int from = 0; from < count; from += APPLY_BATCH_SIZE) {
+            int batchFrom = from;
+            int batchTo = Math.min(count, from + APPLY_BATCH_SIZE);
+            guiCtx.uiRun(() -> {
+                if (!progress.isCancelled()) {
+                    RenameBatch batch = runner.applyBatch(batchFrom, batchTo);
+                    renameCtx.getNames().markApplied(batch);
+                    renamed.addAll(batch.getRenamed());
+                    packagesChanged[0] |= batch.isPackagesChanged();
+                }
+            });
+        }
+        guiCtx.uiRun(() -> {
+            if (progress.isCancelled()) {
+                LOG.info("google-helpers: auto-rename cancelled, {} classes already renamed", renamed.size());
+            } else if (!renamed.isEmpty()) {
+                LOG.info("google-helpers: auto-rename completed, renamed {} classes", renamed.size());
+            } else {
+                LOG.info("google-helpers: auto-rename completed, no matches");
+            }
+            if (!renamed.isEmpty()) {
+                try (RenameMetrics.Phase ignored = metrics.phase("packagesUpdate")) {
+                    RenameBatch.updatePackages(root, packagesChanged[0]);
+                }
+                try (RenameMetrics.Phase ignored = metrics.phase("uiRefresh")) {
+                    for (ClassNode cls : renamed) {
+                        // updates tree and reloads tabs of the class and its usages
+                        guiCtx.applyNodeRename(cls);
+                    }
+                }
+            }
+            reportMetrics(context, metrics);
+            if (backgroundRename == progress) {
+                backgroundRename = null;
+            }
+        });
+    }
+
+    private void cancelBackgroundRename() {
+        RenameProgress progress = backgroundRename;
+        if (progress != null) {
+            LOG.info("google-helpers: cancelling auto-rename ({}/{} classes scanned)", progress.getDone(), progress.getTotal());
+            progress.cancel();
+            backgroundRename = null;
+        }
+    }
+
+    private void reportMetrics(JadxPluginContext context, RenameMetrics metrics) {
+        LOG.info("google-helpers: auto-rename metrics: {}", metrics);
+        metrics.commitEvent();
+        try {
+            Path file = options.getMetricsFile().isEmpty()
+                    ? context.files().getPluginCacheDir().resolve("auto-rename-metrics.json")
+                    : Path.of(options.getMetricsFile());
+            metrics.writeJson(file);
+            LOG.debug("google-helpers: metrics summary written to {}", file);
+        } catch (Exception e) {
+            LOG.warn("google-helpers: failed to write metrics summary: {}", e.toString());
+        }
+    }
+
+    private RenameCache openCache(JadxPluginContext context, JadxDecompiler decompiler) {
+        if (!options.isUseCache()) {
+            return null;
+        }
+        try {
+            Path dir = context.files().getPluginCacheDir().resolve("renames");
+            return RenameCache.forInputs(dir, decompiler.getArgs().getInputFiles(), options);
+        } catch (Exception e) {
+            LOG.warn("google-helpers: rename cache disabled: {}", e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * Renames of the previous app version from 'previousCache' option, null if not set or unreadable.
+     */
+    private RenameMap loadPrevious(RenameMetrics metrics) {
+        if (options.getPreviousCache().isEmpty()) {
+            return null;
+        }
+        Path file = Path.of(options.getPreviousCache());
+        RenameCache.Entry entry;
+        try (RenameMetrics.Phase ignored = metrics.phase("previousLoad")) {
+            entry = RenameCache.loadFile(file);
         }
-        RenameFromLogsPass.MethodRef cached = cachedLocationRef;
-        if (cached == null) {
-            cached = RenameFromLogsPass.discoverILoggerSetLocation(cls.root());
-            cachedLocationRef = cached; // may be null
+        if (entry == null) {
+            LOG.warn("google-helpers: previous rename cache {} not found or unreadable, scanning all classes", file);
+            return null;
         }
-        return cached;
+        LOG.info("google-helpers: matching classes with {} entries of previous version from {}", entry.getRenames().size(), file);
+        return entry.getRenames();
     }
 }
@@ -0,0 +1,116 @@
+package jadx.plugins.googlehelpers;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Heap usage around a scan: used heap at start, peak during the scan and change of used heap at the end.
+ * Peak is the sum of per-pool peaks, so it can be a bit higher than the real one.
+ * <p>
+ * Without GC the end delta includes garbage not collected yet, so it doesn't show what the scan keeps.
+ * Retained heap is measured only if requested: both ends then run a full GC first, which takes time
+ * and is meant for metrics runs only.
+ */
+final class HeapUsageTracker {
+    private static final long MB = 1024 * 1024;
+    private static final int GC_ROUNDS = 2;
+    private static final long GC_SETTLE_MS = 50;
+
+    private final List<MemoryPoolMXBean> heapPools;
+    private final boolean gcMeasure;
+    private final long startUsed;
+    private long peak;
+    private long usedDelta;
+    private long retained = -1;
+
+    private HeapUsageTracker(List<MemoryPoolMXBean> heapPools, boolean gcMeasure, long startUsed) {
+        this.heapPools = heapPools;
+        this.gcMeasure = gcMeasure;
+        this.startUsed = startUsed;
+    }
+
+    static HeapUsageTracker start() {
+        return start(false);
+    }
+
+    /**
+     * @param gcMeasure run GC at start and finish to measure retained heap, see {@link #getRetained()}
+     */
+    static HeapUsageTracker start(boolean gcMeasure) {
+        List<MemoryPoolMXBean> pools = new ArrayList<>(ManagementFactory.getMemoryPoolMXBeans());
+        pools.removeIf(p -> p.getType() != MemoryType.HEAP || !p.isValid());
+        if (gcMeasure) {
+            collectGarbage();
+        }
+        for (MemoryPoolMXBean pool : pools) {
+            pool.resetPeakUsage();
+        }
+        return new HeapUsageTracker(pools, gcMeasure, usedHeap());
+    }
+
+    HeapUsageTracker finish() {
+        long peakSum = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            peakSum += pool.getPeakUsage().getUsed();
+        }
+        peak = peakSum;
+        usedDelta = usedHeap() - startUsed;
+        if (gcMeasure) {
+            collectGarbage();
+            retained = usedHeap() - startUsed;
+        }
+        return this;
+    }
+
+    long getStartUsed() {
+        return startUsed;
+    }
+
+    long getPeak() {
+        return peak;
+    }
+
+    /**
+     * Used heap change without GC, includes garbage.
+     */
+    long getUsedDelta() {
+        return usedDelta;
+    }
+
+    /**
+     * Used heap change with GC at both ends, -1 if not measured.
+     */
+    long getRetained() {
+        return retained;
+    }
+
+    boolean isRetainedMeasured() {
+        return retained != -1;
+    }
+
+    private static void collectGarbage() {
+        for (int i = 0; i < GC_ROUNDS; i++) {
+            System.gc();
+            try {
+                Thread.sleep(GC_SETTLE_MS); // let concurrent collectors and reference processing finish
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    @Override
+    public String toString() {
+        String str = "start " + startUsed / MB + " MB, peak " + peak / MB + " MB, used delta " + usedDelta / MB + " MB";
+        return isRetainedMeasured() ? str + ", retained after GC " + retained / MB + " MB" : str;
+    }
+}
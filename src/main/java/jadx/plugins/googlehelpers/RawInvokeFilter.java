@@ -0,0 +1,67 @@
+package jadx.plugins.googlehelpers;
+
+import jadx.api.plugins.input.data.ICodeReader;
+import jadx.api.plugins.input.data.IMethodRef;
+import jadx.api.plugins.input.insns.Opcode;
+import jadx.core.dex.nodes.MethodNode;
+
+/**
+ * Cheap check over raw method code: look only at invoke targets without building jadx IR.
+ * Lets the scan decode just the methods that actually call a logger method.
+ */
+final class RawInvokeFilter {
+
+    private RawInvokeFilter() {
+    }
+
+    /**
+     * @return false only if the method surely has no call matched by any of given matchers
+     */
+    static boolean mayCall(MethodNode mth, CallMatcher[] matchers) {
+        if (mth.isLoaded()) {
+            return true; // IR already available, nothing to save
+        }
+        ICodeReader codeReader = mth.getCodeReader();
+        if (codeReader == null) {
+            return false; // abstract or native
+        }
+        boolean[] found = { false };
+        try {
+            codeReader.visitInstructions(insn -> {
+                if (found[0] || !isMethodInvoke(insn.getOpcode())) {
+                    return;
+                }
+                insn.decode();
+                IMethodRef mthRef = insn.getIndexAsMethod();
+                for (CallMatcher matcher : matchers) {
+                    if (matcher.matchesRaw(mthRef)) {
+                        found[0] = true;
+                        return;
+                    }
+                }
+            });
+        } catch (Exception e) {
+            return true; // let the full load report the problem
+        }
+        return found[0];
+    }
+
+    static boolean isMethodInvoke(Opcode opcode) {
+        switch (opcode) {
+            case INVOKE_STATIC:
+            case INVOKE_STATIC_RANGE:
+            case INVOKE_VIRTUAL:
+            case INVOKE_VIRTUAL_RANGE:
+            case INVOKE_INTERFACE:
+            case INVOKE_INTERFACE_RANGE:
+            case INVOKE_DIRECT:
+            case INVOKE_DIRECT_RANGE:
+            case INVOKE_SUPER:
+            case INVOKE_SUPER_RANGE:
+            case INVOKE_SPECIAL:
+                return true;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package jadx.plugins.googlehelpers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import jadx.api.plugins.input.data.ICatch;
+import jadx.api.plugins.input.data.ITry;
+import jadx.core.dex.instructions.GotoNode;
+import jadx.core.dex.instructions.SwitchInsn;
+import jadx.core.dex.instructions.args.RegisterArg;
+import jadx.core.dex.nodes.InsnNode;
+
+/**
+ * Reaching definitions of registers in a loaded method which is not processed by jadx yet:
+ * instructions array indexed by code offset, no blocks and no SSA.
+ * <p>
+ * Blocks are split at jump and switch targets, try bounds and exception handlers.
+ * Every block of a try range has an edge to its handlers carrying all definitions of the block,
+ * since any instruction can throw. Blocks without predecessors (dead code) and all blocks of a method
+ * with unreadable jump targets (e.g. switch without data) start with every definition of the method,
+ * so there only registers assigned once are resolved.
+ * <p>
+ * Definitions are numbered in instructions order.
+ */
+final class ReachingDefs {
+    private static final BitSet NONE = new BitSet();
+
+    private final InsnNode[] insns;
+    private final int[] defAt; // definition at each position, -1 if none
+    private final int[] defPos; // position of each definition
+    private final BitSet[] regDefs; // definitions of each register, null if none
+    private final int[] blockOf; // block at each position, -1 for empty positions
+    private int[] blockStart = new int[0];
+    private int[] blockLast = new int[0];
+    private BitSet[] blockIn = new BitSet[0];
+    private boolean unknownFlow;
+
+    ReachingDefs(InsnNode[] insns, List<ITry> tries) {
+        this.insns = insns;
+        int len = insns.length;
+        defAt = new int[len];
+        Arrays.fill(defAt, -1);
+        int[] positions = new int[16];
+        int count = 0;
+        int maxReg = -1;
+        for (int i = 0; i < len; i++) {
+            RegisterArg res = insns[i] != null ? insns[i].getResult() : null;
+            if (res != null) {
+                if (count == positions.length) {
+                    positions = Arrays.copyOf(positions, count * 2);
+                }
+                defAt[i] = count;
+                positions[count++] = i;
+                maxReg = Math.max(maxReg, res.getRegNum());
+            }
+        }
+        defPos = Arrays.copyOf(positions, count);
+        regDefs = new BitSet[maxReg + 1];
+        for (int d = 0; d < count; d++) {
+            int reg = insns[defPos[d]].getResult().getRegNum();
+            if (regDefs[reg] == null) {
+                regDefs[reg] = new BitSet();
+            }
+            regDefs[reg].set(d);
+        }
+        blockOf = new int[len];
+        Arrays.fill(blockOf, -1);
+        if (next(-1) != -1) {
+            buildBlocks(tries);
+            solve(tries);
+        }
+    }
+
+    int getDefCount() {
+        return defPos.length;
+    }
+
+    int getDefPos(int def) {
+        return defPos[def];
+    }
+
+    /**
+     * @return definitions of {@code reg} reaching instruction at {@code pos}, empty for method parameters
+     */
+    BitSet reaching(int reg, int pos) {
+        if (pos < 0 || pos >= insns.length || blockOf[pos] == -1 || reg < 0 || reg >= regDefs.length
+                || regDefs[reg] == null) {
+            return NONE;
+        }
+        BitSet defs = regDefs[reg];
+        int block = blockOf[pos];
+        // with unknown flow an unseen jump target may split the block, so an earlier definition can be bypassed
+        for (int i = pos - 1; !unknownFlow && i >= blockStart[block]; i--) {
+            int d = defAt[i];
+            if (d != -1 && defs.get(d)) {
+                BitSet single = new BitSet();
+                single.set(d);
+                return single;
+            }
+        }
+        BitSet result = (BitSet) blockIn[block].clone();
+        result.and(defs);
+        return result;
+    }
+
+    private void buildBlocks(List<ITry> tries) {
+        BitSet leaders = new BitSet(insns.length);
+        leaders.set(next(-1));
+        for (int i = 0; i < insns.length; i++) {
+            InsnNode insn = insns[i];
+            if (insn == null) {
+                continue;
+            }
+            switch (insn.getType()) {
+                case GOTO:
+                case IF:
+                    markTarget(leaders, ((GotoNode) insn).getTarget());
+                    markNext(leaders, i);
+                    break;
+                case SWITCH:
+                    int[] targets = ((SwitchInsn) insn).getTargets();
+                    if (targets == null) {
+                        unknownFlow = true;
+                    } else {
+                        for (int target : targets) {
+                            markTarget(leaders, target);
+                        }
+                    }
+                    markNext(leaders, i);
+                    break;
+                case RETURN:
+                case THROW:
+                    markNext(leaders, i);
+                    break;
+                default:
+                    break;
+            }
+        }
+        for (ITry aTry : tries) {
+            int start = next(aTry.getStartOffset() - 1);
+            if (start != -1) {
+                leaders.set(start);
+            }
+            markNext(leaders, aTry.getEndOffset());
+            ICatch aCatch = aTry.getCatch();
+            for (int handler : aCatch.getHandlers()) {
+                markTarget(leaders, handler);
+            }
+            if (aCatch.getCatchAllHandler() >= 0) {
+                markTarget(leaders, aCatch.getCatchAllHandler());
+            }
+        }
+        int count = leaders.cardinality();
+        blockStart = new int[count];
+        blockLast = new int[count];
+        int block = -1;
+        for (int i = 0; i < insns.length; i++) {
+            if (insns[i] == null) {
+                continue;
+            }
+            if (leaders.get(i)) {
+                block++;
+                blockStart[block] = i;
+            }
+            blockOf[i] = block;
+            blockLast[block] = i;
+        }
+    }
+
+    private void solve(List<ITry> tries) {
+        int count = blockStart.length;
+        BitSet allDefs = new BitSet();
+        allDefs.set(0, defPos.length);
+        blockIn = new BitSet[count];
+        if (unknownFlow) {
+            Arrays.fill(blockIn, allDefs);
+            return;
+        }
+        List<List<Integer>> preds = newLists(count);
+        List<List<Integer>> excPreds = newLists(count);
+        for (int b = 0; b < count; b++) {
+            addSuccessors(b, preds);
+        }
+        for (ITry aTry : tries) {
+            ICatch aCatch = aTry.getCatch();
+            int catchAll = aCatch.getCatchAllHandler();
+            for (int b = 0; b < count; b++) {
+                if (blockStart[b] < aTry.getStartOffset() || blockStart[b] > aTry.getEndOffset()) {
+                    continue;
+                }
+                for (int handler : aCatch.getHandlers()) {
+                    excPreds.get(blockOf[handler]).add(b);
+                }
+                if (catchAll >= 0) {
+                    excPreds.get(blockOf[catchAll]).add(b);
+                }
+            }
+        }
+        BitSet[] gen = new BitSet[count];
+        BitSet[] kill = new BitSet[count];
+        BitSet[] all = new BitSet[count];
+        BitSet[] out = new BitSet[count];
+        boolean[] orphan = new boolean[count];
+        for (int b = 0; b < count; b++) {
+            gen[b] = new BitSet();
+            kill[b] = new BitSet();
+            all[b] = new BitSet();
+            for (int i = blockStart[b]; i <= blockLast[b]; i++) {
+                int d = defAt[i];
+                if (d != -1) {
+                    BitSet defs = regDefs[insns[i].getResult().getRegNum()];
+                    kill[b].or(defs);
+                    gen[b].andNot(defs);
+                    gen[b].set(d);
+                    all[b].set(d);
+                }
+            }
+            orphan[b] = b != 0 && preds.get(b).isEmpty() && excPreds.get(b).isEmpty();
+            blockIn[b] = orphan[b] ? allDefs : new BitSet();
+            out[b] = transfer(blockIn[b], gen[b], kill[b]);
+        }
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int b = 0; b < count; b++) {
+                if (orphan[b]) {
+                    continue;
+                }
+                BitSet in = new BitSet();
+                for (int p : preds.get(b)) {
+                    in.or(out[p]);
+                }
+                for (int p : excPreds.get(b)) {
+                    in.or(blockIn[p]);
+                    in.or(all[p]);
+                }
+                if (!in.equals(blockIn[b])) {
+                    blockIn[b] = in;
+                    out[b] = transfer(in, gen[b], kill[b]);
+                    changed = true;
+                }
+            }
+        }
+    }
+
+    private void addSuccessors(int block, List<List<Integer>> preds) {
+        int last = blockLast[block];
+        InsnNode insn = insns[last];
+        int fallThrough = next(last);
+        switch (insn.getType()) {
+            case GOTO:
+                addEdge(preds, block, ((GotoNode) insn).getTarget());
+                return;
+            case IF:
+                addEdge(preds, block, ((GotoNode) insn).getTarget());
+                break;
+            case SWITCH:
+                for (int target : ((SwitchInsn) insn).getTargets()) {
+                    addEdge(preds, block, target);
+                }
+                break;
+            case RETURN:
+            case THROW:
+                return;
+            default:
+                break;
+        }
+        if (fallThrough != -1) {
+            addEdge(preds, block, fallThrough);
+        }
+    }
+
+    private void addEdge(List<List<Integer>> preds, int from, int targetPos) {
+        preds.get(blockOf[targetPos]).add(from);
+    }
+
+    private static BitSet transfer(BitSet in, BitSet gen, BitSet kill) {
+        BitSet out = (BitSet) in.clone();
+        out.andNot(kill);
+        out.or(gen);
+        return out;
+    }
+
+    private void markTarget(BitSet leaders, int target) {
+        if (target < 0 || target >= insns.length || insns[target] == null) {
+            unknownFlow = true;
+            return;
+        }
+        leaders.set(target);
+    }
+
+    private void markNext(BitSet leaders, int pos) {
+        int next = next(pos);
+        if (next != -1) {
+            leaders.set(next);
+        }
+    }
+
+    /**
+     * @return position of first instruction after {@code pos}, -1 if none
+     */
+    private int next(int pos) {
+        for (int i = Math.max(pos + 1, 0); i < insns.length; i++) {
+            if (insns[i] != null) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static List<List<Integer>> newLists(int count) {
+        List<List<Integer>> lists = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            lists.add(new ArrayList<>(2));
+        }
+        return lists;
+    }
+}
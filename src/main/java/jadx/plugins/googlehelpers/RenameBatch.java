@@ -0,0 +1,99 @@
+package jadx.plugins.googlehelpers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jadx.core.dex.nodes.ClassNode;
+import jadx.core.dex.nodes.RootNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Scan results of many classes applied in one step. Every class is renamed at most once
+ * (to the name won by votes, see {@link ClassScanResult#addClassName}), unchanged names are skipped,
+ * and the package tree is rebuilt once per run, only if some class moved to another package.
+ * <p>
+ * The rebuild itself is a full {@link RootNode#runPackagesUpdate()}: jadx has no API to update
+ * single packages, and package nodes of moved classes are created and dropped inside it.
+ * So the cost is one pass over the tree per run instead of one per rename.
+ * <p>
+ * Renames touch shared nodes, so batches must not be applied concurrently.
+ */
+final class RenameBatch {
+    private static final Logger LOG = LoggerFactory.getLogger(RenameBatch.class);
+
+    private final List<ClassScanResult> results = new ArrayList<>();
+    private final List<String> classNames = new ArrayList<>();
+    private final List<ClassNode> renamed = new ArrayList<>();
+    private int renamedMethods;
+    private int movedClasses; // renamed to another package
+
+    /**
+     * @param className name to use instead of the found one, e.g. made unique by {@link ClassNameIndex}
+     */
+    void add(ClassScanResult result, String className) {
+        if (result != null && !result.isEmpty()) {
+            results.add(result);
+            classNames.add(className);
+        }
+    }
+
+    RenameBatch apply() {
+        for (int i = 0; i < results.size(); i++) {
+            ClassScanResult result = results.get(i);
+            ClassNode cls = result.getCls();
+            try {
+                String pkg = packageOf(cls);
+                if (RenameFromLogsPass.applyScanResult(result, classNames.get(i))) {
+                    renamed.add(cls);
+                    if (!pkg.equals(packageOf(cls))) {
+                        movedClasses++;
+                    }
+                }
+            } catch (Throwable t) {
+                LOG.debug("google-helpers: auto-rename error for {}: {}", cls.getFullName(), t.toString());
+            }
+            renamedMethods += result.getStats().methodRenames;
+        }
+        LOG.debug("google-helpers: applied {} scan results: {} classes renamed, {} moved to another package",
+                results.size(), renamed.size(), movedClasses);
+        return this;
+    }
+
+    /**
+     * Update the package tree after all batches of a run, see class doc for why it is a full update.
+     *
+     * @param packagesChanged true if any applied batch moved a class to another package
+     */
+    static void updatePackages(RootNode root, boolean packagesChanged) {
+        if (packagesChanged) {
+            root.runPackagesUpdate();
+        } else {
+            LOG.debug("google-helpers: no class changed package, package tree update skipped");
+        }
+    }
+
+    /**
+     * Inner classes keep the package of the outer class.
+     */
+    private static String packageOf(ClassNode cls) {
+        if (cls.getClassInfo().isInner()) {
+            return "";
+        }
+        String name = cls.getFullName();
+        int dot = name.lastIndexOf('.');
+        return dot == -1 ? "" : name.substring(0, dot);
+    }
+
+    List<ClassNode> getRenamed() {
+        return renamed;
+    }
+
+    int getRenamedMethods() {
+        return renamedMethods;
+    }
+
+    boolean isPackagesChanged() {
+        return movedClasses != 0;
+    }
+}
@@ -0,0 +1,223 @@
+package jadx.plugins.googlehelpers;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * On-disk cache of auto-rename results, one binary file per input.
+ * File name is a hash of input files content and options affecting the scan,
+ * so any change in inputs or options results in a cache miss.
+ * Results of an older scan logic are missed too, see {@link #SCAN_VERSION}.
+ */
+final class RenameCache {
+    private static final Logger LOG = LoggerFactory.getLogger(RenameCache.class);
+
+    private static final int MAGIC = 0x47485243; // "GHRC"
+    private static final int FORMAT_VERSION = 3;
+    // bump on any change of scan, pattern or naming logic which gives other renames for the same inputs and options
+    static final int SCAN_VERSION = 1;
+
+    private final Path file;
+    private final String key;
+
+    private RenameCache(Path dir, String key) {
+        this.file = dir.resolve(key + ".bin");
+        this.key = key;
+    }
+
+    static RenameCache forInputs(Path cacheDir, List<File> inputs, GoogleHelpersOptions options) throws IOException {
+        return new RenameCache(cacheDir, buildKey(inputs, options));
+    }
+
+    /**
+     * @return cached data or null if missing or unreadable
+     */
+    Entry load() {
+        return read(file, key);
+    }
+
+    /**
+     * Read a cache file saved for another input, e.g. the previous version of the same app.
+     *
+     * @return cached data or null if missing or unreadable
+     */
+    static Entry loadFile(Path file) {
+        return read(file, null);
+    }
+
+    /**
+     * @param expectedKey null to accept any key
+     */
+    private static Entry read(Path file, String expectedKey) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            // not mapped: a mapping is released only by GC and keeps the file locked on Windows
+            ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(file));
+            if (buf.getInt() != MAGIC || buf.getInt() != FORMAT_VERSION) {
+                LOG.debug("google-helpers: unknown rename cache format in {}", file);
+                return null;
+            }
+            String fileKey = RenameMap.readStr(buf);
+            if (expectedKey != null && !expectedKey.equals(fileKey)) {
+                return null;
+            }
+            String factoryRef = RenameMap.readStr(buf);
+            String locationRef = RenameMap.readStr(buf);
+            boolean complete = buf.get() != 0;
+            RenameMap renames = RenameMap.read(buf);
+            return new Entry(factoryRef, locationRef, renames, complete);
+        } catch (Exception e) {
+            LOG.warn("google-helpers: failed to read rename cache {}: {}", file, e.toString());
+            return null;
+        }
+    }
+
+    void save(Entry entry) {
+        try {
+            write(file, key, entry);
+            LOG.info("google-helpers: rename cache saved to {}", file);
+        } catch (Exception e) {
+            LOG.warn("google-helpers: failed to save rename cache {}: {}", file, e.toString());
+        }
+    }
+
+    /**
+     * Write entry in cache format, readable by {@link #loadFile(Path)}. Replaces the file atomically.
+     */
+    static void write(Path file, String key, Entry entry) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path tmp = Files.createTempFile(file.getParent(), key, ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            RenameMap.writeStr(out, key);
+            RenameMap.writeStr(out, entry.getFactoryRef());
+            RenameMap.writeStr(out, entry.getLocationRef());
+            out.writeBoolean(entry.isComplete());
+            entry.getRenames().write(out);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    private static String buildKey(List<File> inputs, GoogleHelpersOptions options) throws IOException {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        update(md, "format:" + FORMAT_VERSION);
+        update(md, "scan:" + SCAN_VERSION);
+        update(md, "factoryRef:" + options.getFactoryMethodRef());
+        update(md, "locationRef:" + options.getLocationMethodRef());
+        update(md, "patterns:" + options.getPatterns());
+        update(md, "targetClass:" + options.getTargetClass());
+        update(md, "include:" + options.getInclude());
+        update(md, "exclude:" + options.getExclude());
+        update(md, "usageScan:" + options.isUsageScan());
+        update(md, "classNamesOnly:" + options.isClassNamesOnly());
+        // budgets move methods to the end of the scan, which changes the first found name on tied votes;
+        // the deadline is left out: it only stops the scan, and incomplete results are not saved
+        update(md, "methodBudget:" + options.getMethodBudget());
+        update(md, "classBudgetMs:" + options.getClassBudgetMs());
+        for (Path path : collectFiles(inputs)) {
+            update(md, "file:" + path.getFileName());
+            try (InputStream in = Files.newInputStream(path)) {
+                digest(md, in);
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        for (byte b : md.digest()) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    private static List<Path> collectFiles(List<File> inputs) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (File input : inputs) {
+            Path path = input.toPath();
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> walk = Files.walk(path)) {
+                    files.addAll(walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList()));
+                }
+            } else {
+                files.add(path);
+            }
+        }
+        return files;
+    }
+
+    private static void update(MessageDigest md, String str) {
+        md.update(str.getBytes(StandardCharsets.UTF_8));
+        md.update((byte) 0);
+    }
+
+    private static void digest(MessageDigest md, InputStream in) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            md.update(buffer, 0, read);
+        }
+    }
+
+    static final class Entry {
+        private final String factoryRef;
+        private final String locationRef;
+        private final RenameMap renames;
+        private final boolean complete; // false if the scan stopped at the deadline
+
+        Entry(String factoryRef, String locationRef, RenameMap renames) {
+            this(factoryRef, locationRef, renames, true);
+        }
+
+        Entry(String factoryRef, String locationRef, RenameMap renames, boolean complete) {
+            this.factoryRef = factoryRef;
+            this.locationRef = locationRef;
+            this.renames = renames;
+            this.complete = complete;
+        }
+
+        String getFactoryRef() {
+            return factoryRef;
+        }
+
+        String getLocationRef() {
+            return locationRef;
+        }
+
+        RenameMap getRenames() {
+            return renames;
+        }
+
+        /**
+         * Incomplete entries (e.g. a shard stopped at the deadline) can be applied, but must not be cached.
+         */
+        boolean isComplete() {
+            return complete;
+        }
+    }
+}
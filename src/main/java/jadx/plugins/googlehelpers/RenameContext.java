@@ -0,0 +1,184 @@
+package jadx.plugins.googlehelpers;
+
+import jadx.core.dex.nodes.RootNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Logger refs and compiled patterns of one loaded root, shared by the decompile pass,
+ * after-load auto-rename and GUI action. Refs are resolved from options or discovery once,
+ * patterns are compiled on first use (this builds the logger subtype index).
+ * <p>
+ * Safe to use from several threads. Holds the root, so must be dropped with it, see {@link Holder}.
+ */
+final class RenameContext {
+    private static final Logger LOG = LoggerFactory.getLogger(RenameContext.class);
+
+    private final RootNode root;
+    private final GoogleHelpersOptions options;
+    private final RenameFromLogsPass.MethodRef factoryRef;
+    private final RenameFromLogsPass.MethodRef locationRef;
+    private volatile CallPatterns[] patterns;
+    private volatile UsageIndex usage;
+    private volatile boolean usageBuilt;
+    private final ClassNameIndex names; // names given by all rename paths of this root
+
+    private RenameContext(RootNode root, GoogleHelpersOptions options,
+            RenameFromLogsPass.MethodRef factoryRef, RenameFromLogsPass.MethodRef locationRef) {
+        this.root = root;
+        this.options = options;
+        this.factoryRef = factoryRef;
+        this.locationRef = locationRef;
+        this.names = new ClassNameIndex(root);
+    }
+
+    /**
+     * Context with already known refs, e.g. loaded from rename cache, no discovery is done.
+     */
+    static RenameContext of(RootNode root, GoogleHelpersOptions options,
+            RenameFromLogsPass.MethodRef factoryRef, RenameFromLogsPass.MethodRef locationRef) {
+        return new RenameContext(root, options, factoryRef, locationRef);
+    }
+
+    /**
+     * Parse refs from options, discover the ones not configured.
+     */
+    static RenameContext resolve(RootNode root, GoogleHelpersOptions options) {
+        RenameFromLogsPass.MethodRef factory;
+        if (!options.getFactoryMethodRef().isEmpty()) {
+            factory = RenameFromLogsPass.MethodRef.parse(options.getFactoryMethodRef());
+            LOG.info("google-helpers: using configured factoryRef={}", factory);
+        } else {
+            factory = RenameFromLogsPass.discoverGoogleLoggerFactory(root);
+            if (factory != null) {
+                LOG.info("google-helpers: discovered factoryRef={} on load", factory);
+            } else {
+                LOG.info("google-helpers: factoryRef not configured and discovery failed");
+            }
+        }
+        RenameFromLogsPass.MethodRef location;
+        if (!options.getLocationMethodRef().isEmpty()) {
+            location = RenameFromLogsPass.MethodRef.parse(options.getLocationMethodRef());
+            LOG.info("google-helpers: using configured locationRef={}", location);
+        } else {
+            location = RenameFromLogsPass.discoverILoggerSetLocation(root);
+            if (location != null) {
+                LOG.info("google-helpers: discovered locationRef={} on load", location);
+            } else {
+                LOG.info("google-helpers: locationRef not configured and discovery failed");
+            }
+        }
+        return new RenameContext(root, options, factory, location);
+    }
+
+    RootNode getRoot() {
+        return root;
+    }
+
+    RenameFromLogsPass.MethodRef getFactoryRef() {
+        return factoryRef;
+    }
+
+    RenameFromLogsPass.MethodRef getLocationRef() {
+        return locationRef;
+    }
+
+    /**
+     * Patterns for auto-rename, class names only if set in options.
+     */
+    CallPatterns getPatterns() {
+        return compilePatterns()[options.isClassNamesOnly() ? 1 : 0];
+    }
+
+    /**
+     * Patterns with method names, for explicit method rename requests.
+     */
+    CallPatterns getAllPatterns() {
+        return compilePatterns()[0];
+    }
+
+    /**
+     * @return all patterns and class-name-only patterns
+     */
+    private CallPatterns[] compilePatterns() {
+        CallPatterns[] compiled = patterns;
+        if (compiled == null) {
+            synchronized (this) {
+                compiled = patterns;
+                if (compiled == null) {
+                    CallPatterns all = CallPatterns.compile(root, factoryRef, locationRef, options);
+                    LOG.debug("google-helpers: scan patterns: {}", all);
+                    compiled = new CallPatterns[] { all, all.classNamesOnly() };
+                    patterns = compiled;
+                }
+            }
+        }
+        return compiled;
+    }
+
+    /**
+     * Classes with logger calls for lazy rename precheck, built on first use.
+     *
+     * @return null if usage info can't be used, see {@link UsageIndex#build}
+     */
+    UsageIndex getUsage() {
+        if (!usageBuilt) {
+            synchronized (this) {
+                if (!usageBuilt) {
+                    usage = options.isUsageScan() ? UsageIndex.build(root, getPatterns()) : null;
+                    usageBuilt = true;
+                }
+            }
+        }
+        return usage;
+    }
+
+    /**
+     * Class names given on this root: batch renames are recorded with {@link ClassNameIndex#markApplied},
+     * single class renames (lazy, include, popup, daemon) take names with {@link ClassNameIndex#claim}.
+     */
+    ClassNameIndex getNames() {
+        return names;
+    }
+
+    /**
+     * Context of the current root. A new root (project reload) replaces it,
+     * {@link #release()} drops it when the project is closed.
+     */
+    static final class Holder {
+        private final GoogleHelpersOptions options;
+        private RenameContext context; // guarded by this
+
+        Holder(GoogleHelpersOptions options) {
+            this.options = options;
+        }
+
+        /**
+         * Context for root, resolved on first call for this root.
+         */
+        synchronized RenameContext get(RootNode root) {
+            RenameContext ctx = context;
+            if (ctx == null || ctx.getRoot() != root) {
+                ctx = resolve(root, options);
+                context = ctx;
+            }
+            return ctx;
+        }
+
+        /**
+         * Use already resolved context, unless one for the same root exists.
+         */
+        synchronized RenameContext set(RenameContext ctx) {
+            RenameContext cur = context;
+            if (cur != null && cur.getRoot() == ctx.getRoot()) {
+                return cur;
+            }
+            context = ctx;
+            return ctx;
+        }
+
+        synchronized void release() {
+            context = null;
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package jadx.plugins.googlehelpers;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import jadx.api.JadxArgs;
+import jadx.api.JadxDecompiler;
+import jadx.core.dex.nodes.ClassNode;
+import jadx.core.dex.nodes.RootNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Local server keeping one loaded input resident, so repeated rename queries don't pay for jadx load
+ * and logger discovery. Listens on localhost only, one text command per line:
+ * <pre>
+ * map            all renames, same lines as in batch output: {@code a.b.C = com.example.Foo}
+ * class NAME     renames of one class, by raw or current name
+ * rename NAME    scan and rename one class now (same as GUI popup action)
+ * stats          metrics of the startup auto-rename
+ * shutdown       stop the server
+ * auth TOKEN     allow 'rename' and 'shutdown' on this connection
+ * </pre>
+ * Response is {@code OK <line count>} followed by that many lines, or a single {@code ERR <message>} line.
+ * <p>
+ * Any local process can connect, so commands changing state need the token printed to stdout at startup.
+ * Read-only commands are open to all local users.
+ * <p>
+ * Needs jadx-core and input plugins on classpath, see 'renameDaemon' gradle task.
+ */
+public final class RenameDaemon {
+    private static final Logger LOG = LoggerFactory.getLogger(RenameDaemon.class);
+
+    private static final int DEFAULT_PORT = 7850;
+    private static final int TOKEN_BYTES = 16;
+
+    private final RootNode root;
+    private final RenameContext renameCtx;
+    private final ScanResultCache scanCache = new ScanResultCache();
+    private final RenameMetrics metrics = new RenameMetrics();
+    // by raw class name, updated by 'rename' commands
+    private final Map<String, RenameMap.ClassEntry> entries = new ConcurrentHashMap<>();
+    private final String token = newToken();
+    private volatile boolean running = true;
+
+    private RenameDaemon(JadxDecompiler jadx, GoogleHelpersOptions options, boolean autoRename) {
+        this.root = jadx.getRoot();
+        this.renameCtx = RenameContext.resolve(root, options);
+        if (autoRename) {
+            AutoRenameRunner runner = new AutoRenameRunner(renameCtx.getPatterns(), options.isUnloadAfterScan(), metrics, scanCache);
+            runner.setBudget(ScanBudget.fromOptions(options));
+            runner.setMeasureRetainedHeap(options.isMeasureRetainedHeap());
+            RenameBatch applied = runner.run(root, options.isParallelScan(), ClassFilter.fromOptions(options), options.isUsageScan());
+            renameCtx.getNames().markApplied(applied);
+            RenameBatch.updatePackages(root, applied.isPackagesChanged());
+            for (RenameMap.ClassEntry entry : runner.getRenameMap().getEntries()) {
+                entries.put(entry.rawName, entry);
+            }
+            LOG.info("google-helpers: startup auto-rename done, renamed {} classes", applied.getRenamed().size());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = DEFAULT_PORT;
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+        boolean autoRename = true;
+        Map<String, String> pluginOptions = new HashMap<>();
+        String input = null;
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--port")) {
+                port = Integer.parseInt(args[++i]);
+            } else if (arg.equals("--threads")) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (arg.equals("--no-auto-rename")) {
+                autoRename = false;
+            } else if (arg.startsWith("-P") && arg.indexOf('=') > 2) {
+                int eq = arg.indexOf('=');
+                pluginOptions.put(arg.substring(2, eq), arg.substring(eq + 1));
+            } else if (arg.startsWith("-") || input != null) {
+                usage("unexpected argument: " + arg);
+                return;
+            } else {
+                input = arg;
+            }
+        }
+        if (input == null) {
+            usage("input is required");
+            return;
+        }
+        GoogleHelpersOptions options = new GoogleHelpersOptions();
+        options.setOptions(pluginOptions);
+        JadxArgs jadxArgs = new JadxArgs();
+        jadxArgs.setInputFile(new File(input));
+        jadxArgs.setThreadsCount(threads);
+        jadxArgs.setSkipResources(true);
+        jadxArgs.setPluginOptions(pluginOptions);
+        // renames are done by the daemon, don't run plugin passes
+        jadxArgs.setDisabledPlugins(Set.of(GoogleHelpersPlugin.PLUGIN_ID));
+        long start = System.currentTimeMillis();
+        try (JadxDecompiler jadx = new JadxDecompiler(jadxArgs)) {
+            jadx.load();
+            RenameDaemon daemon = new RenameDaemon(jadx, options, autoRename);
+            LOG.info("google-helpers: {} ready in {} ms", input, System.currentTimeMillis() - start);
+            daemon.serve(port);
+        }
+    }
+
+    private static void usage(String error) {
+        System.err.println("google-helpers: " + error);
+        System.err.println("Usage: RenameDaemon [options] <input file>");
+        System.err.println("  --port N            localhost port to listen on (default: " + DEFAULT_PORT + ")");
+        System.err.println("  --threads N         jadx threads (default: cpus)");
+        System.err.println("  --no-auto-rename    skip the startup scan, rename only on 'rename' requests");
+        System.err.println("  -P<name>=<value>    plugin option, same as in jadx-cli");
+    }
+
+    private void serve(int port) throws IOException {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            LOG.info("google-helpers: listening on {}:{}", server.getInetAddress().getHostAddress(), server.getLocalPort());
+            // stdout, not log: readable by the starting process only
+            System.out.println("TOKEN " + token);
+            System.out.flush();
+            server.setSoTimeout(1000); // to check the shutdown flag
+            while (running) {
+                Socket socket;
+                try {
+                    socket = server.accept();
+                } catch (SocketTimeoutException e) {
+                    continue;
+                }
+                executor.execute(() -> handle(socket));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (Socket s = socket;
+                BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+                Writer out = new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8)) {
+            String line;
+            boolean authorized = false;
+            while (running && (line = in.readLine()) != null) {
+                if (line.isBlank()) continue;
+                long start = System.nanoTime();
+                String command = line.trim();
+                String response;
+                if (command.startsWith("auth ")) {
+                    authorized = isToken(command.substring("auth ".length()).trim());
+                    response = authorized ? okLines(Collections.emptyList()) : err("invalid token");
+                } else {
+                    response = execute(command, authorized);
+                }
+                out.write(response);
+                out.flush();
+                LOG.debug("google-helpers: '{}' answered in {} us", command.startsWith("auth ") ? "auth" : command,
+                        (System.nanoTime() - start) / 1000);
+            }
+        } catch (IOException e) {
+            LOG.debug("google-helpers: connection closed: {}", e.toString());
+        }
+    }
+
+    /**
+     * @param authorized true if the connection sent a valid token, needed for 'rename' and 'shutdown'
+     */
+    String execute(String command, boolean authorized) {
+        int sp = command.indexOf(' ');
+        String cmd = sp == -1 ? command : command.substring(0, sp);
+        String arg = sp == -1 ? "" : command.substring(sp + 1).trim();
+        if (!authorized && (cmd.equals("rename") || cmd.equals("shutdown"))) {
+            return err("not authorized, send 'auth <token>' first");
+        }
+        try {
+            switch (cmd) {
+                case "map":
+                    return ok(new ArrayList<>(entries.values()));
+                case "class":
+                    return lookup(arg);
+                case "rename":
+                    return rename(arg);
+                case "stats":
+                    return okLines(Collections.singletonList(metrics.toString()));
+                case "shutdown":
+                    running = false;
+                    return okLines(Collections.emptyList());
+                default:
+                    return err("unknown command: " + cmd);
+            }
+        } catch (Exception e) {
+            LOG.warn("google-helpers: '{}' failed", command, e);
+            return err(e.toString());
+        }
+    }
+
+    private boolean isToken(String value) {
+        return MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        new SecureRandom().nextBytes(bytes);
+        StringBuilder sb = new StringBuilder(TOKEN_BYTES * 2);
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    private String lookup(String name) throws IOException {
+        ClassNode cls = findClass(name);
+        if (cls == null) {
+            return err("class not found: " + name);
+        }
+        RenameMap.ClassEntry entry = entries.get(cls.getRawName());
+        return ok(entry != null ? Collections.singletonList(entry) : Collections.emptyList());
+    }
+
+    /**
+     * Renames change nodes and the package tree, so only one runs at a time.
+     */
+    private synchronized String rename(String name) throws IOException {
+        ClassNode cls = findClass(name);
+        if (cls == null) {
+            return err("class not found: " + name);
+        }
+        // explicit request, rename methods too
+        ClassScanResult result = scanCache.scan(cls, renameCtx.getAllPatterns(), false);
+        RenameBatch batch = new RenameBatch();
+        batch.add(result, result.getClassName() != null ? renameCtx.getNames().claim(cls, result.getClassName()) : null);
+        RenameBatch.updatePackages(root, batch.apply().isPackagesChanged());
+        List<RenameMap.MethodEntry> methods = new ArrayList<>(result.getMethodRenames().size());
+        for (ClassScanResult.MethodRename mr : result.getMethodRenames()) {
+            methods.add(new RenameMap.MethodEntry(mr.getMth().getMethodInfo().getShortId(), mr.getName()));
+        }
+        String newName = result.getClassName() != null ? cls.getFullName() : null;
+        RenameMap.ClassEntry entry = new RenameMap.ClassEntry(cls.getRawName(), newName, methods);
+        if (newName != null || !methods.isEmpty()) {
+            entries.put(cls.getRawName(), entry);
+        }
+        return ok(Collections.singletonList(entry));
+    }
+
+    private ClassNode findClass(String name) {
+        if (name.isEmpty()) {
+            return null;
+        }
+        String dotted = name.replace('/', '.');
+        ClassNode cls = root.resolveRawClass(dotted);
+        return cls != null ? cls : root.searchClassByFullAlias(dotted);
+    }
+
+    private static String ok(List<RenameMap.ClassEntry> list) throws IOException {
+        StringWriter sw = new StringWriter();
+        new RenameMap(list).writeText(sw);
+        String text = sw.toString();
+        List<String> lines = text.isEmpty() ? Collections.emptyList() : List.of(text.split("\n"));
+        return okLines(lines);
+    }
+
+    private static String okLines(List<String> lines) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("OK ").append(lines.size()).append('\n');
+        for (String line : lines) {
+            sb.append(line).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static String err(String message) {
+        return "ERR " + message.replace('\n', ' ') + '\n';
+    }
+}
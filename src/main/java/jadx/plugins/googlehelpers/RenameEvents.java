@@ -0,0 +1,87 @@
+package jadx.plugins.googlehelpers;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * Custom JFR events for auto-rename, recorded only when a flight recording is running.
+ */
+final class RenameEvents {
+
+    private RenameEvents() {
+    }
+
+    @Name("jadx.googlehelpers.Phase")
+    @Label("Auto-rename phase")
+    @Category({ "jadx", "google-helpers" })
+    static final class PhaseEvent extends Event {
+        @Label("Phase")
+        String phase;
+    }
+
+    @Name("jadx.googlehelpers.ClassScan")
+    @Label("Class scan")
+    @Description("Scan of a single class for logger calls, only slow ones are recorded by default")
+    @Category({ "jadx", "google-helpers" })
+    @Threshold("1 ms")
+    static final class ClassScanEvent extends Event {
+        @Label("Class")
+        String cls;
+        @Label("Methods loaded")
+        int methodsLoaded;
+        @Label("Invokes examined")
+        int invokesExamined;
+        @Label("Names found")
+        int namesFound;
+    }
+
+    @Name("jadx.googlehelpers.Summary")
+    @Label("Auto-rename summary")
+    @Category({ "jadx", "google-helpers" })
+    static final class SummaryEvent extends Event {
+        @Label("Cache hit")
+        boolean cacheHit;
+        @Label("Classes visited")
+        int classesVisited;
+        @Label("Classes filtered out")
+        int classesFiltered;
+        @Label("Classes reused from previous version")
+        int classesReused;
+        @Label("Classes skipped by deadline")
+        int classesSkipped;
+        @Label("Methods scanned")
+        int methodsScanned;
+        @Label("Methods skipped")
+        int methodsSkipped;
+        @Label("Methods loaded")
+        int methodsLoaded;
+        @Label("Methods reloaded")
+        int methodsReloaded;
+        @Label("Methods deferred by budget")
+        int methodsDeferred;
+        @Label("Deferred methods skipped by deadline")
+        int methodsDeferredSkipped;
+        @Label("Invokes examined")
+        long invokesExamined;
+        @Label("Class scans stopped early")
+        int earlyExits;
+        @Label("String traces")
+        int stringTraces;
+        @Label("String traces resolved")
+        int stringTracesResolved;
+        @Label("String traces time")
+        @Timespan(Timespan.NANOSECONDS)
+        long stringTraceNanos;
+        @Label("Classes renamed")
+        int classRenames;
+        @Label("Class name collisions")
+        int nameCollisions;
+        @Label("Methods renamed")
+        int methodRenames;
+    }
+}
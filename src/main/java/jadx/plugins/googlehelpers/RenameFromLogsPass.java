@@ -1,20 +1,18 @@
 package jadx.plugins.googlehelpers;
 
-import java.util.Objects;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 
+import jadx.api.plugins.input.data.ICodeReader;
 import jadx.api.plugins.pass.JadxPassInfo;
 import jadx.api.plugins.pass.impl.OrderedJadxPassInfo;
 import jadx.api.plugins.pass.types.JadxDecompilePass;
 import jadx.core.codegen.TypeGen;
 import jadx.core.dex.info.ClassInfo;
 import jadx.core.dex.info.MethodInfo;
-import jadx.core.dex.instructions.ConstStringNode;
-import jadx.core.dex.instructions.InsnType;
 import jadx.core.dex.instructions.InvokeNode;
 import jadx.core.dex.instructions.args.ArgType;
-import jadx.core.dex.instructions.args.InsnArg;
-import jadx.core.dex.instructions.args.InsnWrapArg;
-import jadx.core.dex.instructions.args.RegisterArg;
 import jadx.core.dex.nodes.ClassNode;
 import jadx.core.dex.nodes.InsnNode;
 import jadx.core.dex.nodes.MethodNode;
@@ -25,80 +23,113 @@ import jadx.core.utils.exceptions.DecodeException;
 
 public class RenameFromLogsPass implements JadxDecompilePass {
     private final GoogleHelpersOptions options;
+    private final ScanResultCache scanCache;
+    private final RenameContext.Holder contexts;
     private static final Logger LOG = LoggerFactory.getLogger(RenameFromLogsPass.class);
 
-    private MethodRef resolvedFactoryRef;
-    private MethodRef resolvedLocationRef;
-    private static ClassNode discoveredILoggerIface; // cache discovered ILogger interface
+    // set in init, read by jadx decompile threads
+    private volatile RenameContext context;
+    private volatile ClassFilter classFilter = ClassFilter.ACCEPT_ALL;
+    // patterns of running background auto-rename, null if none
+    private volatile CallPatterns backgroundPatterns;
 
     public RenameFromLogsPass(GoogleHelpersOptions options) {
+        this(options, new ScanResultCache(), new RenameContext.Holder(options));
+    }
+
+    RenameFromLogsPass(GoogleHelpersOptions options, ScanResultCache scanCache, RenameContext.Holder contexts) {
         this.options = options;
+        this.scanCache = scanCache;
+        this.contexts = contexts;
     }
 
     @Override
     public JadxPassInfo getInfo() {
+        // method instructions array is still available before blocks are built
         return new OrderedJadxPassInfo(
                 "GoogleHelpersRename",
                 "Rename class based on Flogger/log location strings")
-                .before("RegionMakerVisitor");
+                .before("BlockSplitter");
     }
 
     @Override
     public void init(jadx.core.dex.nodes.RootNode root) {
-        // Resolve method refs once per decompilation load
-        if (!options.getFactoryMethodRef().isEmpty()) {
-            resolvedFactoryRef = MethodRef.parse(options.getFactoryMethodRef());
-            LOG.info("google-helpers: using configured factoryRef={}", resolvedFactoryRef);
-        } else {
-            resolvedFactoryRef = discoverGoogleLoggerFactory(root);
-            if (resolvedFactoryRef != null) {
-                LOG.info("google-helpers: discovered factoryRef={} on load", resolvedFactoryRef);
-            } else {
-                LOG.info("google-helpers: factoryRef not configured and discovery failed");
-            }
-        }
-        String locOpt = options.getLocationMethodRef();
-        if (locOpt != null && !locOpt.isEmpty()) {
-            resolvedLocationRef = MethodRef.parse(locOpt);
-            LOG.info("google-helpers: using configured locationRef={}", resolvedLocationRef);
-        } else {
-            resolvedLocationRef = discoverILoggerSetLocation(root);
-            if (resolvedLocationRef != null) {
-                LOG.info("google-helpers: discovered locationRef={} on load", resolvedLocationRef);
-            } else {
-                LOG.info("google-helpers: locationRef not configured and discovery failed");
-            }
-        }
+        // refs are resolved once per load, shared with after-load auto-rename
+        context = contexts.get(root);
+        classFilter = ClassFilter.fromOptions(options);
+    }
+
+    /**
+     * While a background auto-rename runs, scan every processed class here, where its instructions are still loaded,
+     * and store the result for the background scan, which must not load instructions of a class jadx is processing.
+     *
+     * @param patterns patterns of the background scan, null when it's done
+     */
+    void setBackgroundPatterns(CallPatterns patterns) {
+        this.backgroundPatterns = patterns;
     }
 
     @Override
     public boolean visit(ClassNode cls) {
-        String target = options.getTargetClass();
-        if (target == null || target.isEmpty()) {
+        ClassFilter filter = classFilter;
+        CallPatterns background = backgroundPatterns;
+        if (background != null && filter.accepts(cls)) {
+            scanCache.scan(cls, background, false);
+        }
+        if (options.isLazyRename()) {
+            if (filter.accepts(cls)) {
+                renameLazy(cls);
+            }
+            return true;
+        }
+        if (!filter.hasIncludes()) {
             // Skip in decompile pass unless explicitly targeted.
             // Auto-run is handled by the AfterLoad pass.
-            LOG.trace("google-helpers: decompile pass skipped (no targetClass set)");
+            LOG.trace("google-helpers: decompile pass skipped (no targetClass or include set)");
             return true;
         }
-        String normTarget = normalizeClassName(target);
-        String clsRaw = cls.getRawName();
-        String clsFull = cls.getFullName();
-        if (!clsRaw.endsWith(normTarget) && !clsFull.equals(normTarget.replace('/', '.'))) {
+        if (!filter.accepts(cls)) {
             return true; // not the targeted class
         }
         LOG.debug("google-helpers: processing class: {}", cls.getFullName());
-        MethodRef factoryRef = resolvedFactoryRef;
-        MethodRef locationRef = resolvedLocationRef;
-//        LOG.debug("google-helpers: using factoryRef={}, locationRef={}",
-//                factoryRef != null ? factoryRef : "<auto-none>",
-//                locationRef != null ? locationRef : "<not-set>");
-        boolean changed = renameClassFromLogs(cls, factoryRef, locationRef);
+        RenameContext ctx = context;
+        boolean changed = applyClaimed(ctx, scanCache.scan(cls, ctx.getPatterns(), false));
         if (!changed) {
             LOG.trace("google-helpers: no matching logger calls found for {}", cls.getFullName());
         }
         return true; // skip method visits
     }
 
+    /**
+     * Rename a class just before it is decompiled, called from several jadx threads.
+     * Scans run in parallel, renames are serialized per root.
+     */
+    private void renameLazy(ClassNode cls) {
+        RenameContext ctx = context;
+        if (ctx.getPatterns().isEmpty()) {
+            return;
+        }
+        UsageIndex usage = ctx.getUsage();
+        if (usage != null && !usage.containsClass(cls)) {
+            return; // no logger calls in this class
+        }
+        applyClaimed(ctx, scanCache.scan(cls, ctx.getPatterns(), false, usage));
+    }
+
+    /**
+     * Apply a single class result with the class name made unique among all renames of the root,
+     * see {@link RenameContext#getNames()}. Can be called from several threads, renames are serialized per root.
+     */
+    static boolean applyClaimed(RenameContext ctx, ClassScanResult result) {
+        if (result.isEmpty()) {
+            return false;
+        }
+        String name = result.getClassName() != null ? ctx.getNames().claim(result.getCls(), result.getClassName()) : null;
+        synchronized (ctx) {
+            return applyScanResult(result, name);
+        }
+    }
+
     @Override
     public void visit(MethodNode mth) {
         // handled in visit(ClassNode)
@@ -106,59 +137,203 @@ public class RenameFromLogsPass implements JadxDecompilePass {
 
     public static boolean renameClassFromLogs(ClassNode cls, MethodRef factoryRef, MethodRef locationRef) {
         if (cls == null) return false;
-        if (factoryRef == null && locationRef == null) {
-            LOG.info("google-helpers: both factoryRef and locationRef are null; nothing to match");
-        }
+        RootNode root = cls.root();
+        return renameClassFromLogs(cls, compileFactory(root, factoryRef), compileLocation(root, locationRef));
+    }
+
+    public static boolean renameClassFromLogs(ClassNode cls, CallMatcher factory, CallMatcher location) {
+        if (cls == null) return false;
+        return applyScanResult(scanClassFromLogs(cls, factory, location));
+    }
 
-        boolean changed = false;
+    /**
+     * Resolve refs once per load, matchers are reused for every invoke of every scanned method.
+     */
+    static CallMatcher compileFactory(RootNode root, MethodRef factoryRef) {
+        return CallMatcher.exact(root, factoryRef);
+    }
+
+    static CallMatcher compileLocation(RootNode root, MethodRef locationRef) {
+        return CallMatcher.withSubtypes(root, locationRef);
+    }
 
-        // First pass: try to match factoryRef in <clinit> and <init>
-        if (factoryRef != null) {
-            MethodNode clinit = cls.getClassInitMth();
-            if (clinit != null) {
-                changed |= scanMethodForRename(clinit, factoryRef, null);
+    /**
+     * Collect rename proposals for a class without modifying it.
+     * Safe to call for different classes from several threads.
+     */
+    public static ClassScanResult scanClassFromLogs(ClassNode cls, CallMatcher factoryRef, CallMatcher locationRef) {
+        return scanClassFromLogs(cls, factoryRef, locationRef, false);
+    }
+
+    /**
+     * @param unloadAfterScan release instructions of methods loaded only for this scan
+     */
+    public static ClassScanResult scanClassFromLogs(ClassNode cls, CallMatcher factoryRef, CallMatcher locationRef,
+            boolean unloadAfterScan) {
+        return scanClassFromLogs(cls, CallPatterns.of(factoryRef, locationRef), unloadAfterScan, null);
+    }
+
+    /**
+     * Single pass over each method: every invoke is checked against all patterns applicable to the method.
+     *
+     * @param usage if set, scan only methods known to call logger methods
+     */
+    static ClassScanResult scanClassFromLogs(ClassNode cls, CallPatterns patterns, boolean unloadAfterScan,
+            UsageIndex usage) {
+        return scanClassFromLogs(cls, patterns, unloadAfterScan, usage, ScanBudget.UNLIMITED);
+    }
+
+    /**
+     * @param budget methods over budget are not scanned but added to {@link ClassScanResult#getDeferred()},
+     *               see {@link #scanDeferred}
+     */
+    static ClassScanResult scanClassFromLogs(ClassNode cls, CallPatterns patterns, boolean unloadAfterScan,
+            UsageIndex usage, ScanBudget budget) {
+        ClassScanResult result = new ClassScanResult(cls);
+        if (patterns.isEmpty()) {
+            LOG.info("google-helpers: no factoryRef, locationRef or patterns; nothing to match");
+            return result;
+        }
+        long start = System.nanoTime();
+        int confident = patterns.getConfidentPriority();
+        // class initializer first: logger fields are set there
+        MethodNode clinit = cls.getClassInitMth();
+        if (clinit != null && (usage == null || usage.callsLogger(clinit))) {
+            if (budget.fitsMethod(clinit)) {
+                scanMethodForRename(clinit, patterns, result, unloadAfterScan);
             } else {
-                // LOG.info("google-helpers: <clinit> not found in {}", cls.getFullName());
+                result.defer(clinit);
             }
-            boolean anyCtor = false;
-            for (MethodNode m : cls.getMethods()) {
-                if (!m.getMethodInfo().isConstructor()) continue;
-                anyCtor = true;
-                changed |= scanMethodForRename(m, factoryRef, null);
+        }
+        List<MethodNode> methods = patterns.isClassNamesOnly() ? cheapFirst(cls.getMethods()) : cls.getMethods();
+        for (MethodNode m : methods) {
+            if (result.getClassNamePriority() >= confident) {
+                result.getStats().earlyExits++;
+                break; // class names only: nothing better can be found
             }
-            if (!anyCtor) {
-                LOG.debug("google-helpers: no <init> constructors found for {}", cls.getFullName());
+            if (m == clinit) continue;
+            if (usage == null || usage.callsLogger(m)) {
+                if (budget.fitsMethod(m) && !budget.isClassOver(start)) {
+                    scanMethodForRename(m, patterns, result, unloadAfterScan);
+                } else {
+                    result.defer(m);
+                }
             }
         }
+        return result;
+    }
+
+    /**
+     * Constructors (set logger fields too), then other methods by raw code size, smallest first.
+     */
+    private static List<MethodNode> cheapFirst(List<MethodNode> methods) {
+        List<MethodNode> list = new ArrayList<>(methods);
+        list.sort(Comparator.comparing((MethodNode m) -> !m.getMethodInfo().isConstructor())
+                .thenComparingInt(RenameFromLogsPass::codeSize));
+        return list;
+    }
+
+    private static int codeSize(MethodNode mth) {
+        ICodeReader codeReader = mth.getCodeReader();
+        return codeReader != null ? codeReader.getUnitsCount() : Integer.MAX_VALUE;
+    }
 
-        // Second pass: try locationRef across all methods
-        if (locationRef != null) {
-            MethodNode clinit = cls.getClassInitMth();
-            if (clinit != null) {
-                changed |= scanMethodForRename(clinit, null, locationRef);
+    /**
+     * Scan methods deferred by budget, by the thread owning the result.
+     * Stops at the deadline, not scanned methods are counted as skipped.
+     */
+    static void scanDeferred(ClassScanResult result, CallPatterns patterns, boolean unloadAfterScan, ScanBudget budget) {
+        List<MethodNode> deferred = result.getDeferred();
+        for (int i = 0; i < deferred.size(); i++) {
+            if (result.getClassNamePriority() >= patterns.getConfidentPriority()) {
+                result.getStats().earlyExits++;
+                break;
             }
-            for (MethodNode m : cls.getMethods()) {
-                changed |= scanMethodForRename(m, null, locationRef);
+            if (budget.isExpired()) {
+                result.getStats().methodsDeferredSkipped += deferred.size() - i;
+                break;
+            }
+            scanMethodForRename(deferred.get(i), patterns, result, unloadAfterScan);
+        }
+        result.clearDeferred();
+    }
+
+    /**
+     * Apply collected proposals.
+     * Renames touch the shared package tree, so this must not run concurrently.
+     */
+    public static boolean applyScanResult(ClassScanResult result) {
+        if (result == null) return false;
+        return applyScanResult(result, result.getClassName());
+    }
+
+    /**
+     * @param className name to use instead of the found one, e.g. made unique by {@link ClassNameIndex}
+     */
+    static boolean applyScanResult(ClassScanResult result, String className) {
+        if (result == null || result.isEmpty()) return false;
+        boolean changed = className != null && renameDeclaringClass(result.getCls(), className);
+        for (ClassScanResult.MethodRename mr : result.getMethodRenames()) {
+            if (renameMethodIfValid(mr.getMth(), mr.getName())) {
+                result.getStats().methodRenames++;
+                changed = true;
             }
         }
         return changed;
     }
 
-    private static boolean scanMethodForRename(MethodNode mth, MethodRef factoryRef, MethodRef locationRef) {
+    static void scanMethodForRename(MethodNode mth, CallPatterns patterns, ClassScanResult result,
+            boolean unloadAfterScan) {
+        ScanStats stats = result.getStats();
+        stats.methodsScanned++;
+        if (!RawInvokeFilter.mayCall(mth, patterns.getMatchers())) {
+            stats.methodsSkipped++;
+            return; // no logger calls in raw code, skip decoding
+        }
+        boolean wasLoaded = mth.isLoaded();
+        try {
+            scanMethodForRename(mth, patterns, result);
+        } finally {
+            if (unloadAfterScan && !wasLoaded) {
+                // keep heap usage flat: only the extracted strings are needed after the scan
+                mth.unload();
+            }
+        }
+    }
+
+    private static void scanMethodForRename(MethodNode mth, CallPatterns patterns, ClassScanResult result) {
         String owner = mth.getParentClass().getFullName();
         String mthName = mth.getMethodInfo().getName();
+        ScanStats stats = result.getStats();
+        // patterns still searched in this method, each one stops at its first call with a found name
+        int count = patterns.size();
+        boolean[] active = new boolean[count];
+        int remaining = 0;
+        for (int p = 0; p < count; p++) {
+            if (patterns.get(p).appliesTo(mth)) {
+                active[p] = true;
+                remaining++;
+            }
+        }
+        if (remaining == 0) {
+            return;
+        }
         try {
 //            LOG.debug("google-helpers: scanning {} {} (preload isNoCode={})", mthName, mth.getMethodInfo().getRawFullId(), mth.isNoCode());
-            mth.load();
+            if (!mth.isLoaded()) {
+                mth.load();
+                stats.methodsLoaded++;
+            }
         } catch (DecodeException e) {
             LOG.warn("google-helpers: failed to load {} for {}: {}", mthName, owner, e.getMessage());
-            return false;
+            return;
         }
         InsnNode[] insns = mth.getInstructions();
         if ((insns == null || insns.length == 0) && mth.isNoCode()) {
             try {
                 LOG.debug("google-helpers: {} has no code after load, trying reload for {}", mthName, owner);
                 mth.reload();
+                stats.methodsReloaded++;
                 insns = mth.getInstructions();
             } catch (Exception e) {
                 LOG.debug("google-helpers: reload failed for {} {}: {}", mthName, owner, e.toString());
@@ -166,53 +341,63 @@ public class RenameFromLogsPass implements JadxDecompilePass {
         }
         if (insns == null || insns.length == 0) {
             LOG.debug("google-helpers: {} has no instructions for {}", mthName, owner);
-            return false;
+            return;
         }
 //        LOG.debug("google-helpers: scanning {} {} ({} insns)", mthName, mth.getMethodInfo().getRawFullId(), insns.length);
-        boolean changed = false;
-        for (int i = 0; i < insns.length; i++) {
+        StringArgResolver resolver = StringArgResolver.forMethod(mth, insns); // shared by all calls in this method
+        for (int i = 0; i < insns.length && remaining > 0; i++) {
             InsnNode insn = insns[i];
 //            LOG.debug("google-helpers: insn #{} {}", i, insn);
             if (!(insn instanceof InvokeNode)) {
                 continue;
             }
             InvokeNode inv = (InvokeNode) insn;
+            stats.invokesExamined++;
             MethodInfo call = inv.getCallMth();
 //            LOG.debug("google-helpers: invoke at #{}, call={}", i, call.getRawFullId());
-            if (factoryRef != null) {
-                boolean match = methodMatches(call, factoryRef);
-//                LOG.debug("google-helpers: compare with factoryRef {} => {}", refToString(factoryRef), match);
-                if (match) {
-                    String clsName = extractStringArg(inv, 0, i, insns);
-                    if (clsName != null) {
-//                        LOG.info("google-helpers: found factory call {} in {} -> {}",
-//                                call.getRawFullId(), mth.getMethodInfo().getRawFullId(), clsName);
-                        renameDeclaringClass(mth.getParentClass(), clsName);
-                        changed = true;
-                        break;
+            for (int p = 0; p < count; p++) {
+                if (!active[p]) continue;
+                CallPattern pattern = patterns.get(p);
+                if (!pattern.getMatcher().matches(call)) continue;
+                boolean found = false;
+                if (pattern.getClassArg() != CallPattern.NO_ARG) {
+                    String clsName = extractStringArg(stats, resolver, inv, pattern.getClassArg(), i);
+                    if (clsName != null && isValidClassName(clsName)) {
+//                        LOG.info("google-helpers: found {} call {} in {} -> {}",
+//                                pattern.getName(), call.getRawFullId(), mth.getMethodInfo().getRawFullId(), clsName);
+                        result.addClassName(clsName, p, mth.getMethodInfo().isClassInit());
+                        found = true;
                     }
                 }
-            }
-            if (locationRef != null) {
-                boolean match = locationCallMatches(mth.getParentClass().root(), call, locationRef);
-//                LOG.debug("google-helpers: compare with locationRef {} => {}", refToString(locationRef), match);
-                if (match) {
-                    String clsName = extractStringArg(inv, 0, i, insns);
-                    if (clsName != null) {
-//                        LOG.info("google-helpers: found location call {} in {} -> {}",
-//                                call.getRawFullId(), mth.getMethodInfo().getRawFullId(), clsName);
-                        renameDeclaringClass(mth.getParentClass(), clsName);
-                        changed = true;
+                if (pattern.getMethodArg() != CallPattern.NO_ARG) {
+                    String newMthName = extractStringArg(stats, resolver, inv, pattern.getMethodArg(), i);
+                    if (newMthName != null) {
+                        result.addMethodName(mth, newMthName);
+                        found = true;
                     }
-                    String newMthName = extractStringArg(inv, 1, i, insns);
-                    if (newMthName != null && renameMethodIfValid(mth, newMthName)) {
-                        changed = true;
-                    }
-                    break;
                 }
+                if (found) {
+                    active[p] = false;
+                    remaining--;
+                }
+                break; // one call matches one pattern
             }
         }
-        return changed;
+    }
+
+    /**
+     * Logged names from user patterns (e.g. Android log tags) are free text, accept only usable class names.
+     */
+    private static boolean isValidClassName(String raw) {
+        String name = normalizeClassName(raw);
+        if (name.isEmpty()) return false;
+        for (String part : name.split("/", -1)) {
+            if (!isValidJavaIdentifier(part)) {
+                LOG.debug("google-helpers: invalid class name '{}'", raw);
+                return false;
+            }
+        }
+        return true;
     }
 
     private static boolean renameMethodIfValid(MethodNode mth, String rawName) {
@@ -225,7 +410,7 @@ public class RenameFromLogsPass implements JadxDecompilePass {
         }
         String cur = mth.getMethodInfo().getName();
         if (cur.equals(name)) return false;
-        LOG.info("google-helpers: renaming method {} -> {}", mth.getMethodInfo().getRawFullId(), name);
+        LOG.debug("google-helpers: renaming method {} -> {}", mth.getMethodInfo().getRawFullId(), name);
         mth.rename(name);
         return true;
     }
@@ -241,89 +426,6 @@ public class RenameFromLogsPass implements JadxDecompilePass {
         return true;
     }
 
-    private static boolean methodMatches(MethodInfo call, MethodRef ref) {
-        if (ref == null) return false;
-        if (!Objects.equals(ownerDot(call), ref.ownerDot)) return false;
-        if (!call.getName().equals(ref.name)) return false;
-        if (!ref.hasSignature) return true;
-        String expectedShortId = buildShortId(ref);
-        boolean eq = call.getShortId().equals(expectedShortId);
-        if (!eq) {
-//            LOG.debug("google-helpers: shortId mismatch: got={}, expected={}", call.getShortId(), expectedShortId);
-        }
-        return eq;
-    }
-
-    private static String ownerDot(MethodInfo call) {
-        return call.getDeclClass().getFullName();
-    }
-
-    private static boolean locationCallMatches(RootNode root, MethodInfo call, MethodRef ref) {
-        if (ref == null) return false;
-        // 1) name must match
-        if (!call.getName().equals(ref.name)) {
-//            LOG.debug("google-helpers: location match: name mismatch call={} ref={}", call.getName(), ref.name);
-            return false;
-        }
-        // 2) args must match (ignore return type)
-        String shortId = call.getShortId(); // name(args)ret
-        int parenOpen = shortId.indexOf('(');
-        int parenClose = shortId.indexOf(')');
-        if (parenOpen <= 0 || parenClose <= parenOpen) {
-//            LOG.debug("google-helpers: location match: bad shortId {}", shortId);
-            return false;
-        }
-        String callArgs = shortId.substring(parenOpen + 1, parenClose);
-        String expectedArgs = String.join("", ref.argTypes);
-        if (!callArgs.equals(expectedArgs)) {
-//            LOG.debug("google-helpers: location match: args mismatch call={} expected={}", callArgs, expectedArgs);
-            return false;
-        }
-        // 3) owner must be ref.ownerDot or a sub-interface/impl of it
-        String callOwnerName = ownerDot(call);
-        if (callOwnerName.equals(ref.ownerDot)) {
-//            LOG.debug("google-helpers: location match: owner equals {}", callOwnerName);
-            return true;
-        }
-        try {
-            ClassNode callOwner = root.resolveClass(ClassInfo.fromName(root, callOwnerName));
-            ClassNode target = root.resolveClass(ClassInfo.fromName(root, ref.ownerDot));
-            if (target == null && discoveredILoggerIface != null) {
-                target = discoveredILoggerIface;
-            }
-            if (callOwner != null && target != null) {
-                boolean sub = isSubtypeOf(callOwner, target);
-//                LOG.debug("google-helpers: location match: owner subtype {} -> {} = {}", callOwner.getFullName(), target.getFullName(), sub);
-                if (sub) return true;
-            } else {
-                LOG.debug("google-helpers: location match: resolve failed callOwner={} target={}", callOwner, target);
-            }
-        } catch (Throwable ignore) {
-            // ignore and fallthrough
-        }
-        return false;
-    }
-
-    private static boolean isSubtypeOf(ClassNode child, ClassNode target) {
-        if (child == target) return true;
-        final boolean[] found = { false };
-        RootNode root = child.root();
-        child.visitSuperTypes((argThis, superType) -> {
-            if (found[0]) return; // already found
-            if (superType != null && superType.isObject()) {
-                try {
-                    ClassNode superNode = root.resolveClass(superType);
-                    if (superNode == target) {
-                        found[0] = true;
-                    }
-                } catch (Throwable ignore) {
-                    // ignore resolution issues
-                }
-            }
-        });
-        return found[0];
-    }
-
     private static String buildShortId(MethodRef ref) {
         StringBuilder sb = new StringBuilder();
         sb.append(ref.name).append('(');
@@ -332,15 +434,24 @@ public class RenameFromLogsPass implements JadxDecompilePass {
         return sb.toString();
     }
 
-    private static String refToString(MethodRef ref) {
-        if (ref == null) return "<null>";
-        return ref.ownerDot + "->" + buildShortId(ref);
+    /**
+     * @return false if class already has this name
+     */
+    private static boolean renameDeclaringClass(ClassNode cls, String raw) {
+        String name = toClassAlias(raw);
+        if (name.equals(cls.getFullName())) {
+            return false;
+        }
+        LOG.debug("google-helpers: renaming {} -> {}", cls.getFullName(), name);
+        cls.rename(name);
+        return true;
     }
 
-    private static void renameDeclaringClass(ClassNode cls, String raw) {
-        String name = normalizeClassName(raw).replace('/', '.');
-        LOG.info("google-helpers: renaming {} -> {}", cls.getFullName(), name);
-        cls.rename(name);
+    /**
+     * Found class name as dotted full name, as used for class rename.
+     */
+    static String toClassAlias(String raw) {
+        return normalizeClassName(raw).replace('/', '.');
     }
 
     private static String normalizeClassName(String s) {
@@ -353,72 +464,16 @@ public class RenameFromLogsPass implements JadxDecompilePass {
         return r;
     }
 
-    private static String extractStringArg(InvokeNode inv, int desiredArgIndex, int pos, InsnNode[] insns) {
-        int argIdx = inv.getFirstArgOffset() + desiredArgIndex;
-        if (argIdx < 0 || argIdx >= inv.getArgsCount()) {
-            LOG.debug("google-helpers: desired arg index {} out of bounds (argsCount={}, offset={})",
-                    desiredArgIndex, inv.getArgsCount(), inv.getFirstArgOffset());
-            return null;
-        }
-        InsnArg arg = inv.getArg(argIdx);
-        // direct wrapped const string
-        if (arg.isInsnWrap()) {
-            InsnNode wrap = ((InsnWrapArg) arg).getWrapInsn();
-            if (wrap.getType() == InsnType.CONST_STR) {
-                String s = ((ConstStringNode) wrap).getString();
-//                LOG.debug("google-helpers: string arg from wrap: {}", s);
-                return s;
-            }
-//            LOG.debug("google-helpers: arg is wrap of {} (not string)", wrap.getType());
-        }
-        // simple backtrack through previous assignments / moves
-        if (arg.isRegister()) {
-            int reg = ((RegisterArg) arg).getRegNum();
-//            LOG.debug("google-helpers: tracing string from register v{}", reg);
-            return traceStringFromRegister(reg, pos, insns, 10);
-        }
-        LOG.debug("google-helpers: arg is neither wrap nor register ({}), skipping", arg.getClass().getSimpleName());
-        return null;
-    }
-
-    private static String traceStringFromRegister(int reg, int startPos, InsnNode[] insns, int limit) {
-        int steps = 0;
-        for (int i = startPos - 1; i >= 0 && steps < limit; i--, steps++) {
-            InsnNode prev = insns[i];
-            if (prev == null) {
-//                LOG.debug("google-helpers: trace skipped null insn at #{}", i);
-                continue;
-            }
-            RegisterArg res = prev.getResult();
-            if (res == null || res.getRegNum() != reg) {
-                continue;
-            }
-            if (prev.getType() == InsnType.CONST_STR) {
-                String s = ((ConstStringNode) prev).getString();
-//                LOG.debug("google-helpers: string arg from const: {}", s);
-                return s;
-            }
-            if (prev.getType() == InsnType.MOVE) {
-                InsnArg src = prev.getArg(0);
-                if (src.isRegister()) {
-                    reg = ((RegisterArg) src).getRegNum();
-//                    LOG.debug("google-helpers: follow move chain to v{}", reg);
-                    continue; // follow move chain
-                }
-                if (src.isInsnWrap()) {
-                    InsnNode wrap = ((InsnWrapArg) src).getWrapInsn();
-                    if (wrap.getType() == InsnType.CONST_STR) {
-                        String s = ((ConstStringNode) wrap).getString();
-//                        LOG.debug("google-helpers: string arg from move-wrap: {}", s);
-                        return s;
-                    }
-//                    LOG.debug("google-helpers: move-wrap is {} (not string)", wrap.getType());
-                }
-            }
-            LOG.debug("google-helpers: non-const producer for v{}: {}", reg, prev.getType());
+    private static String extractStringArg(ScanStats stats, StringArgResolver resolver, InvokeNode inv,
+            int argIndex, int pos) {
+        long start = System.nanoTime();
+        String str = resolver.resolve(inv, argIndex, pos);
+        stats.stringTraceNanos += System.nanoTime() - start;
+        stats.stringTraces++;
+        if (str != null) {
+            stats.stringTracesResolved++;
         }
-        LOG.debug("google-helpers: failed to trace string within {} steps", limit);
-        return null;
+        return str;
     }
 
     public static final class MethodRef {
@@ -495,6 +550,25 @@ public class RenameFromLogsPass implements JadxDecompilePass {
             }
             return list.toArray(new String[0]);
         }
+
+        /**
+         * Same format as accepted by {@link #parse(String)}.
+         */
+        @Override
+        public String toString() {
+            String owner = ownerDot.replace('.', '/');
+            if (!hasSignature) {
+                return owner + '.' + name;
+            }
+            return owner + "->" + buildShortId(this);
+        }
+
+        /**
+         * @return {@link #toString()} of ref, null for null ref (missing ref in cache entries)
+         */
+        static String toStringOrNull(MethodRef ref) {
+            return ref != null ? ref.toString() : null;
+        }
     }
 
     public static MethodRef discoverGoogleLoggerFactory(RootNode root) {
@@ -502,8 +576,8 @@ public class RenameFromLogsPass implements JadxDecompilePass {
             ClassInfo ci = ClassInfo.fromName(root, "com.google.common.flogger.GoogleLogger");
             ClassNode gl = root.resolveClass(ci);
             if (gl == null) {
-                LOG.warn("google-helpers: GoogleLogger class not found in input");
-                return null;
+                LOG.info("google-helpers: GoogleLogger class not found in input, searching by structure");
+                return FloggerFingerprint.forRoot(root).getFactoryRef();
             }
             ArgType stringType = ArgType.STRING;
             ArgType retType = ArgType.object(ci.getFullName());
@@ -531,8 +605,8 @@ public class RenameFromLogsPass implements JadxDecompilePass {
             ClassInfo alInfo = ClassInfo.fromName(root, "com.google.common.flogger.AbstractLogger");
             ClassNode al = root.resolveClass(alInfo);
             if (al == null) {
-                LOG.warn("google-helpers: AbstractLogger class not found in input");
-                return null;
+                LOG.info("google-helpers: AbstractLogger class not found in input, searching by structure");
+                return FloggerFingerprint.forRoot(root).getLocationRef();
             }
             // 2) Try to infer ILogger type from a method taking java.util.logging.Level and returning an interface
             ArgType levelType = ArgType.object("java.util.logging.Level");
@@ -555,8 +629,8 @@ public class RenameFromLogsPass implements JadxDecompilePass {
                 }
             }
             if (iLoggerIface == null) {
-                LOG.warn("google-helpers: failed to discover ILogger via AbstractLogger methods");
-                return null;
+                LOG.info("google-helpers: failed to discover ILogger via AbstractLogger methods, searching by structure");
+                return FloggerFingerprint.forRoot(root).getLocationRef();
             }
 
             // 3) In ILogger interface, find setLocation-like method with (String, String, int, String) signature
@@ -595,7 +669,6 @@ public class RenameFromLogsPass implements JadxDecompilePass {
                     };
                     String retSig = TypeGen.signature(ArgType.object(iloggerCls.getFullName()));
                     MethodRef ref = new MethodRef(iloggerCls.getFullName(), mi.getName(), true, args, retSig);
-                    discoveredILoggerIface = iloggerCls; // save for later owner checks
                     LOG.info("google-helpers: discovered ILogger.setLocation candidate: {}->{}", iloggerCls.getFullName(), mi.getShortId());
                     return ref;
                 }
@@ -0,0 +1,280 @@
+package jadx.plugins.googlehelpers;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import jadx.core.dex.nodes.ClassNode;
+import jadx.core.dex.nodes.MethodNode;
+import jadx.core.dex.nodes.RootNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Scan results detached from nodes: classes and methods are stored by raw (original) names,
+ * so a map can be saved and replayed on another load of the same input.
+ */
+final class RenameMap {
+    private static final Logger LOG = LoggerFactory.getLogger(RenameMap.class);
+
+    private final List<ClassEntry> entries;
+
+    RenameMap(List<ClassEntry> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * Stores names assigned by index, so replay of a saved map has no collisions to resolve.
+     * Classes with a structural hash are kept even without renames, to be matched in the next app version.
+     */
+    static RenameMap fromResults(ClassScanResult[] results, ClassNameIndex names) {
+        List<ClassEntry> list = new ArrayList<>();
+        for (ClassScanResult result : results) {
+            if (result == null || (result.isEmpty() && result.getHash() == 0)) continue;
+            String clsName = names.getAssigned(result.getCls());
+            List<MethodEntry> methods = new ArrayList<>(result.getMethodRenames().size());
+            for (ClassScanResult.MethodRename mr : result.getMethodRenames()) {
+                methods.add(new MethodEntry(mr.getMth().getMethodInfo().getShortId(), mr.getName(),
+                        result.getMethodHash(mr.getMth())));
+            }
+            list.add(new ClassEntry(result.getCls().getRawName(), clsName, methods, result.getHash()));
+        }
+        return new RenameMap(list);
+    }
+
+    /**
+     * Join maps of disjoint class sets, e.g. from shard workers. If a class is found in several maps,
+     * the first entry with renames is kept. Equal names for different classes are left as is:
+     * they are made unique on apply, see {@link ClassNameIndex}.
+     */
+    static RenameMap merge(List<RenameMap> parts) {
+        Map<String, ClassEntry> byRawName = new LinkedHashMap<>();
+        int duplicates = 0;
+        for (RenameMap part : parts) {
+            for (ClassEntry entry : part.entries) {
+                ClassEntry prev = byRawName.putIfAbsent(entry.rawName, entry);
+                if (prev != null) {
+                    duplicates++;
+                    if (prev.isEmpty() && !entry.isEmpty()) {
+                        byRawName.put(entry.rawName, entry);
+                    }
+                }
+            }
+        }
+        if (duplicates != 0) {
+            LOG.warn("google-helpers: {} classes found in several rename maps, first entry kept", duplicates);
+        }
+        return new RenameMap(new ArrayList<>(byRawName.values()));
+    }
+
+    /**
+     * Bind entries back to nodes of a loaded root. Entries for missing classes or methods are skipped.
+     */
+    List<ClassScanResult> resolve(RootNode root) {
+        List<ClassScanResult> results = new ArrayList<>(entries.size());
+        for (ClassEntry entry : entries) {
+            if (entry.isEmpty()) continue;
+            ClassNode cls = root.resolveRawClass(entry.rawName);
+            if (cls == null) {
+                LOG.debug("google-helpers: class {} from rename map not found", entry.rawName);
+                continue;
+            }
+            ClassScanResult result = new ClassScanResult(cls);
+            if (entry.newName != null) {
+                result.addClassName(entry.newName);
+            }
+            for (MethodEntry me : entry.methods) {
+                MethodNode mth = cls.searchMethodByShortId(me.shortId);
+                if (mth != null) {
+                    result.addMethodName(mth, me.newName);
+                }
+            }
+            results.add(result);
+        }
+        return results;
+    }
+
+    /**
+     * Entries by structural hash, for matching classes of another app version.
+     * Hashes found for several classes are left out, such classes can't be matched reliably.
+     */
+    Map<Long, ClassEntry> byUniqueHash() {
+        Map<Long, ClassEntry> map = new HashMap<>(entries.size());
+        Set<Long> dups = new HashSet<>();
+        for (ClassEntry entry : entries) {
+            if (entry.hash != 0 && map.put(entry.hash, entry) != null) {
+                dups.add(entry.hash);
+            }
+        }
+        map.keySet().removeAll(dups);
+        return map;
+    }
+
+    /**
+     * Bind an entry of a previous app version to the class with the same structural hash.
+     * Methods are matched only by hash: names are changed by re-obfuscation, so a short id alone
+     * may point to another method. Short id only picks one of several methods with the same code.
+     *
+     * @param mthHashes hashes of class methods in {@link ClassNode#getMethods()} order
+     */
+    static ClassScanResult reuse(ClassNode cls, long[] mthHashes, ClassEntry entry) {
+        ClassScanResult result = new ClassScanResult(cls);
+        if (entry.newName != null) {
+            result.addClassName(entry.newName);
+        }
+        List<MethodNode> methods = cls.getMethods();
+        for (MethodEntry me : entry.methods) {
+            if (me.hash == 0) {
+                continue; // saved without hashes
+            }
+            MethodNode mth = null;
+            int matches = 0;
+            for (int i = 0; i < mthHashes.length; i++) {
+                if (mthHashes[i] == me.hash) {
+                    matches++;
+                    if (matches == 1 || methods.get(i).getMethodInfo().getShortId().equals(me.shortId)) {
+                        mth = methods.get(i);
+                    }
+                }
+            }
+            if (matches > 1 && !mth.getMethodInfo().getShortId().equals(me.shortId)) {
+                continue; // same code in several methods, none with the previous short id
+            }
+            if (mth != null) {
+                result.addMethodName(mth, me.newName);
+            }
+        }
+        return result;
+    }
+
+    List<ClassEntry> getEntries() {
+        return entries;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(entries.size());
+        for (ClassEntry entry : entries) {
+            writeStr(out, entry.rawName);
+            writeStr(out, entry.newName);
+            out.writeLong(entry.hash);
+            out.writeInt(entry.methods.size());
+            for (MethodEntry me : entry.methods) {
+                writeStr(out, me.shortId);
+                writeStr(out, me.newName);
+                out.writeLong(me.hash);
+            }
+        }
+    }
+
+    /**
+     * Human readable form, one rename per line:
+     * {@code a.b.C = com.example.Foo} for classes and {@code a.b.C.f(I)V = bar} for methods.
+     */
+    void writeText(Writer out) throws IOException {
+        for (ClassEntry entry : entries) {
+            if (entry.newName != null) {
+                out.write(entry.rawName + " = " + entry.newName + '\n');
+            }
+            for (MethodEntry me : entry.methods) {
+                out.write(entry.rawName + '.' + me.shortId + " = " + me.newName + '\n');
+            }
+        }
+    }
+
+    int countMethods() {
+        int count = 0;
+        for (ClassEntry entry : entries) {
+            count += entry.methods.size();
+        }
+        return count;
+    }
+
+    static RenameMap read(ByteBuffer buf) {
+        int count = buf.getInt();
+        List<ClassEntry> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String rawName = readStr(buf);
+            String newName = readStr(buf);
+            long hash = buf.getLong();
+            int mthCount = buf.getInt();
+            List<MethodEntry> methods = mthCount == 0 ? Collections.emptyList() : new ArrayList<>(mthCount);
+            for (int j = 0; j < mthCount; j++) {
+                methods.add(new MethodEntry(readStr(buf), readStr(buf), buf.getLong()));
+            }
+            list.add(new ClassEntry(rawName, newName, methods, hash));
+        }
+        return new RenameMap(list);
+    }
+
+    static void writeStr(DataOutputStream out, String str) throws IOException {
+        if (str == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readStr(ByteBuffer buf) {
+        int len = buf.getInt();
+        if (len == -1) {
+            return null;
+        }
+        byte[] bytes = new byte[len];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static final class ClassEntry {
+        final String rawName;
+        final String newName; // null if only methods are renamed
+        final List<MethodEntry> methods;
+        final long hash; // structural hash, 0 if unknown
+
+        ClassEntry(String rawName, String newName, List<MethodEntry> methods) {
+            this(rawName, newName, methods, 0);
+        }
+
+        ClassEntry(String rawName, String newName, List<MethodEntry> methods, long hash) {
+            this.rawName = rawName;
+            this.newName = newName;
+            this.methods = methods;
+            this.hash = hash;
+        }
+
+        boolean isEmpty() {
+            return newName == null && methods.isEmpty();
+        }
+    }
+
+    static final class MethodEntry {
+        final String shortId;
+        final String newName;
+        final long hash; // structural hash, 0 if unknown
+
+        MethodEntry(String shortId, String newName) {
+            this(shortId, newName, 0);
+        }
+
+        MethodEntry(String shortId, String newName, long hash) {
+            this.shortId = shortId;
+            this.newName = newName;
+            this.hash = hash;
+        }
+    }
+}
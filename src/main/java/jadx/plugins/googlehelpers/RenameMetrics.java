@@ -0,0 +1,204 @@
+package jadx.plugins.googlehelpers;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counters and phase timers of one after-load auto-rename run.
+ * Filled by one thread at a time (pass thread, then UI thread for background runs):
+ * scan workers report through per-class {@link ScanStats}.
+ */
+final class RenameMetrics {
+    private final Map<String, Long> phaseNanos = new LinkedHashMap<>();
+    private final ScanStats totals = new ScanStats();
+    private boolean cacheHit;
+    private int classesVisited;
+    private int classesFiltered;
+    private int classesReused;
+    private int classesSkipped;
+    private int classRenames;
+    private int nameCollisions;
+    private HeapUsageTracker heap;
+
+    /**
+     * Measure a phase, also reported as JFR event. Use with try-with-resources.
+     */
+    Phase phase(String name) {
+        return new Phase(name);
+    }
+
+    void addScan(ClassScanResult[] results) {
+        classesVisited += results.length;
+        for (ClassScanResult result : results) {
+            if (result != null) {
+                totals.add(result.getStats());
+            }
+        }
+    }
+
+    void addFiltered(int count) {
+        classesFiltered += count;
+    }
+
+    void addSkipped(int count) {
+        classesSkipped += count;
+    }
+
+    void addReused(int count) {
+        classesReused += count;
+    }
+
+    void addApplied(int classes, int methods) {
+        classRenames += classes;
+        totals.methodRenames += methods;
+    }
+
+    void addCollisions(int count) {
+        nameCollisions += count;
+    }
+
+    void setCacheHit(boolean cacheHit) {
+        this.cacheHit = cacheHit;
+    }
+
+    void setHeap(HeapUsageTracker heap) {
+        this.heap = heap;
+    }
+
+    void commitEvent() {
+        RenameEvents.SummaryEvent event = new RenameEvents.SummaryEvent();
+        if (!event.isEnabled()) {
+            return;
+        }
+        event.cacheHit = cacheHit;
+        event.classesVisited = classesVisited;
+        event.classesFiltered = classesFiltered;
+        event.classesReused = classesReused;
+        event.classesSkipped = classesSkipped;
+        event.methodsScanned = totals.methodsScanned;
+        event.methodsSkipped = totals.methodsSkipped;
+        event.methodsLoaded = totals.methodsLoaded;
+        event.methodsReloaded = totals.methodsReloaded;
+        event.methodsDeferred = totals.methodsDeferred;
+        event.methodsDeferredSkipped = totals.methodsDeferredSkipped;
+        event.invokesExamined = totals.invokesExamined;
+        event.earlyExits = totals.earlyExits;
+        event.stringTraces = totals.stringTraces;
+        event.stringTracesResolved = totals.stringTracesResolved;
+        event.stringTraceNanos = totals.stringTraceNanos;
+        event.classRenames = classRenames;
+        event.nameCollisions = nameCollisions;
+        event.methodRenames = totals.methodRenames;
+        event.commit();
+    }
+
+    void writeJson(Path file) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) {
+            Files.createDirectories(dir);
+        }
+        Files.write(file, toJson().getBytes(StandardCharsets.UTF_8));
+    }
+
+    String toJson() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\n");
+        sb.append("  \"cacheHit\": ").append(cacheHit).append(",\n");
+        sb.append("  \"phasesMs\": {");
+        boolean first = true;
+        for (Map.Entry<String, Long> entry : phaseNanos.entrySet()) {
+            sb.append(first ? "\n" : ",\n");
+            sb.append("    \"").append(entry.getKey()).append("\": ").append(entry.getValue() / 1_000_000);
+            first = false;
+        }
+        sb.append(first ? "},\n" : "\n  },\n");
+        sb.append("  \"classesVisited\": ").append(classesVisited).append(",\n");
+        sb.append("  \"classesFiltered\": ").append(classesFiltered).append(",\n");
+        sb.append("  \"classesReused\": ").append(classesReused).append(",\n");
+        sb.append("  \"classesSkipped\": ").append(classesSkipped).append(",\n");
+        sb.append("  \"methodsScanned\": ").append(totals.methodsScanned).append(",\n");
+        sb.append("  \"methodsSkipped\": ").append(totals.methodsSkipped).append(",\n");
+        sb.append("  \"methodsLoaded\": ").append(totals.methodsLoaded).append(",\n");
+        sb.append("  \"methodsReloaded\": ").append(totals.methodsReloaded).append(",\n");
+        sb.append("  \"methodsDeferred\": ").append(totals.methodsDeferred).append(",\n");
+        sb.append("  \"methodsDeferredSkipped\": ").append(totals.methodsDeferredSkipped).append(",\n");
+        sb.append("  \"invokesExamined\": ").append(totals.invokesExamined).append(",\n");
+        sb.append("  \"earlyExits\": ").append(totals.earlyExits).append(",\n");
+        sb.append("  \"stringTraces\": ").append(totals.stringTraces).append(",\n");
+        sb.append("  \"stringTracesResolved\": ").append(totals.stringTracesResolved).append(",\n");
+        sb.append("  \"stringTraceMs\": ").append(totals.stringTraceNanos / 1_000_000).append(",\n");
+        sb.append("  \"stringTraceNsPerResolved\": ").append(nanosPerResolved()).append(",\n");
+        sb.append("  \"classRenames\": ").append(classRenames).append(",\n");
+        sb.append("  \"nameCollisions\": ").append(nameCollisions).append(",\n");
+        sb.append("  \"methodRenames\": ").append(totals.methodRenames);
+        if (heap != null) {
+            sb.append(",\n  \"heapMb\": {\"start\": ").append(heap.getStartUsed() >> 20)
+                    .append(", \"peak\": ").append(heap.getPeak() >> 20)
+                    .append(", \"usedDelta\": ").append(heap.getUsedDelta() >> 20);
+            if (heap.isRetainedMeasured()) {
+                sb.append(", \"retained\": ").append(heap.getRetained() >> 20);
+            }
+            sb.append('}');
+        }
+        sb.append("\n}\n");
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Long> entry : phaseNanos.entrySet()) {
+            sb.append(entry.getKey()).append(' ').append(entry.getValue() / 1_000_000).append(" ms, ");
+        }
+        return sb.append("classes ").append(classesVisited)
+                .append(" (filtered out ").append(classesFiltered)
+                .append(", reused ").append(classesReused)
+                .append(", skipped by deadline ").append(classesSkipped).append(')')
+                .append(", methods scanned ").append(totals.methodsScanned)
+                .append(" (skipped ").append(totals.methodsSkipped)
+                .append(", loaded ").append(totals.methodsLoaded)
+                .append(", reloaded ").append(totals.methodsReloaded)
+                .append(", deferred ").append(totals.methodsDeferred)
+                .append(", deferred and skipped ").append(totals.methodsDeferredSkipped)
+                .append("), invokes ").append(totals.invokesExamined)
+                .append(", early exits ").append(totals.earlyExits)
+                .append(", string traces ").append(totals.stringTracesResolved).append('/').append(totals.stringTraces)
+                .append(" (").append(nanosPerResolved()).append(" ns per resolved)")
+                .append(", renamed classes ").append(classRenames)
+                .append(" (name collisions ").append(nameCollisions).append(')')
+                .append(", methods ").append(totals.methodRenames)
+                .toString();
+    }
+
+    private long nanosPerResolved() {
+        int resolved = totals.stringTracesResolved;
+        return resolved == 0 ? 0 : totals.stringTraceNanos / resolved;
+    }
+
+    final class Phase implements AutoCloseable {
+        private final String name;
+        private final long start;
+        private final RenameEvents.PhaseEvent event;
+
+        private Phase(String name) {
+            this.name = name;
+            this.event = new RenameEvents.PhaseEvent();
+            this.event.begin();
+            this.start = System.nanoTime();
+        }
+
+        @Override
+        public void close() {
+            phaseNanos.merge(name, System.nanoTime() - start, Long::sum);
+            event.end();
+            if (event.shouldCommit()) {
+                event.phase = name;
+                event.commit();
+            }
+        }
+    }
+}
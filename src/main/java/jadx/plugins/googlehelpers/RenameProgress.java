@@ -0,0 +1,49 @@
+package jadx.plugins.googlehelpers;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Progress and cancellation of one auto-rename run.
+ * Scan workers report scanned classes, progress is logged every 10%.
+ */
+final class RenameProgress {
+    private static final Logger LOG = LoggerFactory.getLogger(RenameProgress.class);
+
+    private static final int STEPS = 10;
+
+    private final AtomicInteger done = new AtomicInteger();
+    private volatile int total;
+    private volatile boolean cancelled;
+
+    void start(int total) {
+        this.total = total;
+        done.set(0);
+    }
+
+    void classDone() {
+        int t = total;
+        int d = done.incrementAndGet();
+        if (t >= STEPS && d % (t / STEPS) == 0 && d < t) {
+            LOG.info("google-helpers: auto-rename scan {}% ({}/{} classes)", d * 100L / t, d, t);
+        }
+    }
+
+    void cancel() {
+        cancelled = true;
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    int getDone() {
+        return done.get();
+    }
+
+    int getTotal() {
+        return total;
+    }
+}
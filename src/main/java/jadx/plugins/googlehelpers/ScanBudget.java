@@ -0,0 +1,63 @@
+package jadx.plugins.googlehelpers;
+
+import java.util.concurrent.TimeUnit;
+
+import jadx.api.plugins.input.data.ICodeReader;
+import jadx.core.dex.nodes.MethodNode;
+
+/**
+ * Work limits of one auto-rename scan. Generated code (protobuf, dagger, big switch-based {@code <clinit>})
+ * has methods with tens of thousands of instructions, while logger calls are almost always in small methods.
+ * <ul>
+ * <li>methods bigger than the method budget, and methods left when a class runs out of its time budget,
+ * are deferred: scanned after all other classes</li>
+ * <li>after the deadline no more classes or deferred methods are scanned</li>
+ * </ul>
+ * Immutable, safe to share between scan workers.
+ */
+final class ScanBudget {
+    static final ScanBudget UNLIMITED = new ScanBudget(0, 0, Long.MAX_VALUE);
+
+    private final int maxMethodUnits; // 0 for no limit
+    private final long maxClassNanos; // 0 for no limit
+    private final long deadline; // System.nanoTime() value
+
+    ScanBudget(int maxMethodUnits, long maxClassNanos, long deadline) {
+        this.maxMethodUnits = maxMethodUnits;
+        this.maxClassNanos = maxClassNanos;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Deadline counts from this call, create right before the scan.
+     */
+    static ScanBudget fromOptions(GoogleHelpersOptions options) {
+        long deadline = options.getScanDeadlineSec() > 0
+                ? System.nanoTime() + TimeUnit.SECONDS.toNanos(options.getScanDeadlineSec())
+                : Long.MAX_VALUE;
+        return new ScanBudget(Math.max(0, options.getMethodBudget()),
+                TimeUnit.MILLISECONDS.toNanos(Math.max(0, options.getClassBudgetMs())), deadline);
+    }
+
+    /**
+     * Checked on raw code size, before instructions are loaded.
+     */
+    boolean fitsMethod(MethodNode mth) {
+        if (maxMethodUnits == 0) {
+            return true;
+        }
+        ICodeReader codeReader = mth.getCodeReader();
+        return codeReader == null || codeReader.getUnitsCount() <= maxMethodUnits;
+    }
+
+    /**
+     * @param classStart {@link System#nanoTime()} at class scan start
+     */
+    boolean isClassOver(long classStart) {
+        return maxClassNanos != 0 && System.nanoTime() - classStart > maxClassNanos;
+    }
+
+    boolean isExpired() {
+        return deadline != Long.MAX_VALUE && System.nanoTime() - deadline > 0;
+    }
+}
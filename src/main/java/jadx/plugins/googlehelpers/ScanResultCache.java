@@ -0,0 +1,102 @@
+package jadx.plugins.googlehelpers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jadx.core.dex.nodes.ClassNode;
+import jadx.core.dex.nodes.MethodNode;
+import jadx.core.dex.nodes.RootNode;
+
+/**
+ * Scan results per class, shared by after-load auto-rename, decompile pass and GUI action.
+ * Bound to one root: a new root (project reload) drops all entries.
+ * Entry is also dropped if class methods were recreated by a class reload
+ * or if it was made with patterns for other logger methods.
+ */
+final class ScanResultCache {
+    private final Map<ClassNode, Entry> entries = new ConcurrentHashMap<>();
+    private volatile RootNode root;
+
+    ClassScanResult scan(ClassNode cls, CallPatterns patterns, boolean unloadAfterScan) {
+        return scan(cls, patterns, unloadAfterScan, null);
+    }
+
+    /**
+     * Results limited by usage info are stored as full ones: methods without logger calls add nothing.
+     */
+    ClassScanResult scan(ClassNode cls, CallPatterns patterns, boolean unloadAfterScan, UsageIndex usage) {
+        return scan(cls, patterns, unloadAfterScan, usage, ScanBudget.UNLIMITED);
+    }
+
+    /**
+     * Results with methods deferred by budget are not stored, the caller completes them.
+     */
+    ClassScanResult scan(ClassNode cls, CallPatterns patterns, boolean unloadAfterScan, UsageIndex usage,
+            ScanBudget budget) {
+        checkRoot(cls.root());
+        Entry entry = entries.get(cls);
+        if (entry != null && entry.isValidFor(cls, patterns)) {
+            return entry.result;
+        }
+        // read methods list before the scan, so a reload during the scan invalidates the entry
+        List<MethodNode> methods = cls.getMethods();
+        ClassScanResult result = RenameFromLogsPass.scanClassFromLogs(cls, patterns, unloadAfterScan, usage, budget);
+        if (result.getDeferred().isEmpty()) {
+            entries.put(cls, new Entry(result, methods, patterns.getKey()));
+        }
+        return result;
+    }
+
+    /**
+     * @return stored result, null if class wasn't scanned with these patterns since its last reload
+     */
+    ClassScanResult get(ClassNode cls, CallPatterns patterns) {
+        checkRoot(cls.root());
+        Entry entry = entries.get(cls);
+        return entry != null && entry.isValidFor(cls, patterns) ? entry.result : null;
+    }
+
+    void invalidate(ClassNode cls) {
+        entries.remove(cls);
+    }
+
+    /**
+     * Drop all entries and the bound root, so nodes of a closed project can be collected.
+     */
+    synchronized void clear() {
+        entries.clear();
+        root = null;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void checkRoot(RootNode clsRoot) {
+        if (root != clsRoot) {
+            synchronized (this) {
+                if (root != clsRoot) {
+                    entries.clear();
+                    root = clsRoot;
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+        final ClassScanResult result;
+        final List<MethodNode> methods; // class reload creates new method nodes and list
+        final String patternsKey;
+
+        Entry(ClassScanResult result, List<MethodNode> methods, String patternsKey) {
+            this.result = result;
+            this.methods = methods;
+            this.patternsKey = patternsKey;
+        }
+
+        boolean isValidFor(ClassNode cls, CallPatterns patterns) {
+            return cls.getMethods() == methods && patternsKey.equals(patterns.getKey());
+        }
+    }
+}
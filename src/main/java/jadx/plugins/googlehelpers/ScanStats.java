@@ -0,0 +1,35 @@
+package jadx.plugins.googlehelpers;
+
+/**
+ * Counters for one class scan. Updated only by the thread scanning the class,
+ * summed into {@link RenameMetrics} after the scan.
+ */
+final class ScanStats {
+    int methodsScanned;
+    int methodsSkipped; // rejected by raw code prefilter
+    int methodsLoaded;
+    int methodsReloaded;
+    int methodsDeferred; // over budget, scanned after other classes
+    int methodsDeferredSkipped; // deferred and not scanned before the deadline
+    int invokesExamined;
+    int earlyExits; // class scans stopped at a confident name, see CallPatterns#classNamesOnly
+    int stringTraces;
+    int stringTracesResolved;
+    long stringTraceNanos; // time spent resolving string arguments
+    int methodRenames; // applied
+
+    void add(ScanStats other) {
+        methodsScanned += other.methodsScanned;
+        methodsSkipped += other.methodsSkipped;
+        methodsLoaded += other.methodsLoaded;
+        methodsReloaded += other.methodsReloaded;
+        methodsDeferred += other.methodsDeferred;
+        methodsDeferredSkipped += other.methodsDeferredSkipped;
+        invokesExamined += other.invokesExamined;
+        earlyExits += other.earlyExits;
+        stringTraces += other.stringTraces;
+        stringTracesResolved += other.stringTracesResolved;
+        stringTraceNanos += other.stringTraceNanos;
+        methodRenames += other.methodRenames;
+    }
+}
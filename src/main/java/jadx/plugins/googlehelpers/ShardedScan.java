@@ -0,0 +1,257 @@
+package jadx.plugins.googlehelpers;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import jadx.api.JadxArgs;
+import jadx.api.JadxDecompiler;
+import jadx.core.dex.nodes.ClassNode;
+import jadx.core.dex.nodes.RootNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Auto-rename scan split across local worker processes, for inputs too big to load all method
+ * instructions into one heap. Every worker loads the input (class headers only), takes its shard of
+ * classes, runs discovery and scan, and writes a partial rename map in rename cache format,
+ * marked incomplete if the worker stopped at the scan deadline.
+ * The coordinator ({@link #run}) merges the maps, renames are then applied in one step by the caller.
+ * <p>
+ * Classes are grouped by package or input (dex) file and groups are spread over shards by class count,
+ * so every worker computes the same assignment without talking to others.
+ */
+public final class ShardedScan {
+    private static final Logger LOG = LoggerFactory.getLogger(ShardedScan.class);
+
+    private ShardedScan() {
+    }
+
+    /**
+     * Run workers and merge their results.
+     *
+     * @param pluginOptions raw plugin options, passed to workers
+     * @return merged renames with refs found by the first worker, incomplete if any shard was incomplete
+     * @throws IOException if any worker failed, partial results are not applied
+     */
+    static RenameCache.Entry run(List<File> inputs, Map<String, String> pluginOptions, GoogleHelpersOptions options,
+            int threads) throws IOException, InterruptedException {
+        int shards = options.getShards();
+        int threadsPerWorker = Math.max(1, threads / shards);
+        Path workDir = Files.createTempDirectory("google-helpers-shards");
+        List<Process> processes = new ArrayList<>(shards);
+        List<Path> outFiles = new ArrayList<>(shards);
+        try {
+            String classpath = workerClasspath();
+            for (int i = 0; i < shards; i++) {
+                Path out = workDir.resolve("shard-" + i + ".bin");
+                outFiles.add(out);
+                List<String> cmd = new ArrayList<>();
+                cmd.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+                if (!options.getShardWorkerHeap().isEmpty()) {
+                    cmd.add("-Xmx" + options.getShardWorkerHeap());
+                }
+                cmd.add("-cp");
+                cmd.add(classpath);
+                cmd.add(ShardedScan.class.getName());
+                cmd.add("--shard");
+                cmd.add(i + "/" + shards);
+                cmd.add("--out");
+                cmd.add(out.toString());
+                cmd.add("--threads");
+                cmd.add(Integer.toString(threadsPerWorker));
+                for (Map.Entry<String, String> opt : pluginOptions.entrySet()) {
+                    cmd.add("-P" + opt.getKey() + '=' + opt.getValue());
+                }
+                for (File input : inputs) {
+                    cmd.add(input.getAbsolutePath());
+                }
+                processes.add(new ProcessBuilder(cmd).inheritIO().start());
+            }
+            LOG.info("google-helpers: started {} shard workers, {} threads each", shards, threadsPerWorker);
+            List<RenameMap> parts = new ArrayList<>(shards);
+            RenameCache.Entry first = null;
+            int incomplete = 0;
+            for (int i = 0; i < shards; i++) {
+                int exitCode = processes.get(i).waitFor();
+                RenameCache.Entry part = exitCode == 0 ? RenameCache.loadFile(outFiles.get(i)) : null;
+                if (part == null) {
+                    throw new IOException("shard worker " + i + " failed, exit code " + exitCode);
+                }
+                if (first == null) {
+                    first = part;
+                } else if (!Objects.equals(first.getFactoryRef(), part.getFactoryRef())
+                        || !Objects.equals(first.getLocationRef(), part.getLocationRef())) {
+                    LOG.warn("google-helpers: shard {} found different logger refs: {}, {}",
+                            i, part.getFactoryRef(), part.getLocationRef());
+                }
+                if (!part.isComplete()) {
+                    incomplete++;
+                }
+                parts.add(part.getRenames());
+            }
+            RenameMap merged = RenameMap.merge(parts);
+            LOG.info("google-helpers: merged {} shard maps, {} entries", shards, merged.size());
+            if (incomplete != 0) {
+                LOG.warn("google-helpers: {} of {} shards stopped at the scan deadline, results are partial", incomplete, shards);
+            }
+            return new RenameCache.Entry(first.getFactoryRef(), first.getLocationRef(), merged, incomplete == 0);
+        } finally {
+            for (Process process : processes) {
+                process.destroyForcibly();
+            }
+            for (Path out : outFiles) {
+                Files.deleteIfExists(out);
+            }
+            Files.deleteIfExists(workDir);
+        }
+    }
+
+    /**
+     * Host classpath (jadx-core and input plugins) and the plugin jar, which is loaded by a separate class loader.
+     */
+    private static String workerClasspath() throws IOException {
+        String hostCp = System.getProperty("java.class.path");
+        try {
+            Path pluginJar = Paths.get(ShardedScan.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            return hostCp.isEmpty() ? pluginJar.toString() : hostCp + File.pathSeparator + pluginJar;
+        } catch (Exception e) {
+            throw new IOException("plugin jar location not available", e);
+        }
+    }
+
+    /**
+     * Classes of one shard out of {@code count}. Groups are taken biggest first, each into the least loaded shard,
+     * ties broken by group key and shard index, so the result depends only on the class list.
+     */
+    static Predicate<ClassNode> shardFilter(List<ClassNode> classes, String shardBy, int index, int count) {
+        Function<ClassNode, String> keyFn = groupKey(shardBy);
+        Map<String, Integer> sizes = new TreeMap<>();
+        for (ClassNode cls : classes) {
+            sizes.merge(keyFn.apply(cls), 1, Integer::sum);
+        }
+        List<Map.Entry<String, Integer>> groups = new ArrayList<>(sizes.entrySet());
+        groups.sort(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()));
+        int[] load = new int[count];
+        Map<String, Integer> shardOf = new HashMap<>(groups.size());
+        for (Map.Entry<String, Integer> group : groups) {
+            int min = 0;
+            for (int i = 1; i < count; i++) {
+                if (load[i] < load[min]) {
+                    min = i;
+                }
+            }
+            load[min] += group.getValue();
+            shardOf.put(group.getKey(), min);
+        }
+        return cls -> shardOf.getOrDefault(keyFn.apply(cls), -1) == index;
+    }
+
+    private static Function<ClassNode, String> groupKey(String shardBy) {
+        switch (shardBy) {
+            case "dex":
+                return cls -> Objects.toString(cls.getInputFileName(), "");
+            case "package":
+                return ShardedScan::rawPackage;
+            default:
+                LOG.warn("google-helpers: unknown shardBy value '{}', using 'package'", shardBy);
+                return ShardedScan::rawPackage;
+        }
+    }
+
+    private static String rawPackage(ClassNode cls) {
+        String raw = cls.getRawName();
+        int dot = raw.lastIndexOf('.');
+        return dot == -1 ? "" : raw.substring(0, dot);
+    }
+
+    /**
+     * Worker entry point: {@code --shard I/N --out FILE [--threads N] [-P<name>=<value>]... <input>...}
+     */
+    public static void main(String[] args) {
+        int index = -1;
+        int count = 0;
+        String out = null;
+        int threads = 1;
+        Map<String, String> pluginOptions = new HashMap<>();
+        List<File> inputs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--shard")) {
+                String[] parts = args[++i].split("/");
+                index = Integer.parseInt(parts[0]);
+                count = Integer.parseInt(parts[1]);
+            } else if (arg.equals("--out")) {
+                out = args[++i];
+            } else if (arg.equals("--threads")) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (arg.startsWith("-P") && arg.indexOf('=') > 2) {
+                int eq = arg.indexOf('=');
+                pluginOptions.put(arg.substring(2, eq), arg.substring(eq + 1));
+            } else {
+                inputs.add(new File(arg));
+            }
+        }
+        if (index < 0 || index >= count || out == null || inputs.isEmpty()) {
+            System.err.println("Usage: ShardedScan --shard I/N --out FILE [--threads N] [-P<name>=<value>]... <input>...");
+            System.exit(2);
+        }
+        try {
+            runWorker(inputs, pluginOptions, threads, index, count, Paths.get(out));
+        } catch (Throwable t) {
+            LOG.error("google-helpers: shard {}/{} failed", index, count, t);
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+
+    private static void runWorker(List<File> inputs, Map<String, String> pluginOptions, int threads,
+            int index, int count, Path out) throws IOException {
+        long start = System.currentTimeMillis();
+        GoogleHelpersOptions options = new GoogleHelpersOptions();
+        options.setOptions(pluginOptions);
+        JadxArgs args = new JadxArgs();
+        args.setInputFiles(inputs);
+        args.setThreadsCount(threads);
+        args.setSkipResources(true);
+        args.setPluginOptions(pluginOptions);
+        // renames are collected below, don't run plugin passes
+        args.setDisabledPlugins(Set.of(GoogleHelpersPlugin.PLUGIN_ID));
+        try (JadxDecompiler jadx = new JadxDecompiler(args)) {
+            jadx.load();
+            RootNode root = jadx.getRoot();
+            RenameContext renameCtx = RenameContext.resolve(root, options);
+            RenameMetrics metrics = new RenameMetrics();
+            ClassFilter filter = ClassFilter.fromOptions(options);
+            AutoRenameRunner runner = new AutoRenameRunner(renameCtx.getPatterns(), options.isUnloadAfterScan(), metrics, null);
+            runner.setShard(shardFilter(filter.filter(root.getClasses(true)), options.getShardBy(), index, count));
+            runner.setHashClasses(true);
+            runner.setBudget(ScanBudget.fromOptions(options));
+            runner.setMeasureRetainedHeap(options.isMeasureRetainedHeap());
+            if (!options.getPreviousCache().isEmpty()) {
+                RenameCache.Entry previous = RenameCache.loadFile(Paths.get(options.getPreviousCache()));
+                runner.setPrevious(previous != null ? previous.getRenames() : null);
+            }
+            runner.scan(root, options.isParallelScan(), filter, options.isUsageScan());
+            RenameMap map = runner.getRenameMap();
+            RenameCache.write(out, "shard-" + index + "-of-" + count, new RenameCache.Entry(
+                    RenameFromLogsPass.MethodRef.toStringOrNull(renameCtx.getFactoryRef()),
+                    RenameFromLogsPass.MethodRef.toStringOrNull(renameCtx.getLocationRef()),
+                    map, runner.isComplete()));
+            LOG.info("google-helpers: shard {}/{}: {} entries in {} ms, metrics: {}",
+                    index, count, map.size(), System.currentTimeMillis() - start, metrics);
+        }
+    }
+}
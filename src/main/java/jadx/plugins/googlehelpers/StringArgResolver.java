@@ -0,0 +1,132 @@
+package jadx.plugins.googlehelpers;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+import jadx.api.plugins.input.data.ICodeReader;
+import jadx.api.plugins.input.data.ITry;
+import jadx.core.dex.instructions.ConstStringNode;
+import jadx.core.dex.instructions.InsnType;
+import jadx.core.dex.instructions.InvokeNode;
+import jadx.core.dex.instructions.args.InsnArg;
+import jadx.core.dex.instructions.args.InsnWrapArg;
+import jadx.core.dex.instructions.args.RegisterArg;
+import jadx.core.dex.nodes.InsnNode;
+import jadx.core.dex.nodes.MethodNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Constant string values of invoke arguments in one method, memoized for all call sites of the method.
+ * <p>
+ * Works on freshly loaded instructions (scans run before jadx builds blocks and SSA).
+ * Assignments reaching a call are found by {@link ReachingDefs} over branches, loops and exception handlers,
+ * moves are followed the same way. An argument is resolved only if every reaching assignment
+ * gives the same constant.
+ * <p>
+ * Not thread safe, create one per scanned method.
+ */
+final class StringArgResolver {
+    private static final Logger LOG = LoggerFactory.getLogger(StringArgResolver.class);
+
+    private static final String UNRESOLVED = new String("<unresolved>"); // compared by reference
+
+    private final InsnNode[] insns;
+    private final List<ITry> tries;
+    private ReachingDefs defs; // lazy
+    private String[] defValues; // lazy, resolved value of each definition
+
+    /**
+     * Resolver for a method without try blocks.
+     */
+    StringArgResolver(InsnNode[] insns) {
+        this(insns, Collections.emptyList());
+    }
+
+    StringArgResolver(InsnNode[] insns, List<ITry> tries) {
+        this.insns = insns;
+        this.tries = tries;
+    }
+
+    /**
+     * @param insns loaded instructions of {@code mth}
+     */
+    static StringArgResolver forMethod(MethodNode mth, InsnNode[] insns) {
+        ICodeReader codeReader = mth.getCodeReader();
+        List<ITry> tries = codeReader != null ? codeReader.getTries() : null;
+        return new StringArgResolver(insns, tries != null ? tries : Collections.emptyList());
+    }
+
+    /**
+     * @param argIndex argument index without {@code this}
+     * @param pos position of the invoke in instructions array
+     * @return null if argument is not a known constant string
+     */
+    String resolve(InvokeNode inv, int argIndex, int pos) {
+        int argIdx = inv.getFirstArgOffset() + argIndex;
+        if (argIdx < 0 || argIdx >= inv.getArgsCount()) {
+            LOG.debug("google-helpers: desired arg index {} out of bounds (argsCount={}, offset={})",
+                    argIndex, inv.getArgsCount(), inv.getFirstArgOffset());
+            return null;
+        }
+        InsnArg arg = inv.getArg(argIdx);
+        if (arg.isInsnWrap()) {
+            return constString(((InsnWrapArg) arg).getWrapInsn());
+        }
+        if (arg.isRegister()) {
+            String value = resolveRegister(((RegisterArg) arg).getRegNum(), pos);
+            return value == UNRESOLVED ? null : value;
+        }
+        LOG.debug("google-helpers: arg is neither wrap nor register ({}), skipping", arg.getClass().getSimpleName());
+        return null;
+    }
+
+    /**
+     * Value of register at {@code pos}, if all assignments reaching it give the same constant.
+     */
+    private String resolveRegister(int reg, int pos) {
+        if (defs == null) {
+            defs = new ReachingDefs(insns, tries);
+            defValues = new String[defs.getDefCount()];
+        }
+        BitSet reaching = defs.reaching(reg, pos);
+        String value = null;
+        for (int d = reaching.nextSetBit(0); d >= 0; d = reaching.nextSetBit(d + 1)) {
+            String v = defValue(d);
+            if (v == UNRESOLVED || (value != null && !value.equals(v))) {
+                return UNRESOLVED;
+            }
+            value = v;
+        }
+        return value != null ? value : UNRESOLVED; // no assignment: method parameter
+    }
+
+    private String defValue(int def) {
+        String known = defValues[def];
+        if (known != null) {
+            return known;
+        }
+        defValues[def] = UNRESOLVED; // cycles of moves in loops stay unresolved
+        int pos = defs.getDefPos(def);
+        InsnNode insn = insns[pos];
+        String value = UNRESOLVED;
+        if (insn.getType() == InsnType.CONST_STR) {
+            value = ((ConstStringNode) insn).getString();
+        } else if (insn.getType() == InsnType.MOVE) {
+            InsnArg src = insn.getArg(0);
+            if (src.isInsnWrap()) {
+                String s = constString(((InsnWrapArg) src).getWrapInsn());
+                value = s != null ? s : UNRESOLVED;
+            } else if (src.isRegister()) {
+                value = resolveRegister(((RegisterArg) src).getRegNum(), pos);
+            }
+        }
+        defValues[def] = value;
+        return value;
+    }
+
+    private static String constString(InsnNode insn) {
+        return insn.getType() == InsnType.CONST_STR ? ((ConstStringNode) insn).getString() : null;
+    }
+}
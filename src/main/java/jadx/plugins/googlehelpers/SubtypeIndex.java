@@ -0,0 +1,95 @@
+package jadx.plugins.googlehelpers;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import jadx.core.dex.info.ClassInfo;
+import jadx.core.dex.instructions.args.ArgType;
+import jadx.core.dex.nodes.ClassNode;
+import jadx.core.dex.nodes.RootNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * All classes of the input that extend or implement a base type (including the base itself).
+ * Built once per load with one memoized walk over the hierarchy, queried with a set lookup.
+ */
+final class SubtypeIndex {
+    private static final Logger LOG = LoggerFactory.getLogger(SubtypeIndex.class);
+
+    private final ClassNode base;
+    private final Set<ClassInfo> subtypes;
+
+    private SubtypeIndex(ClassNode base, Set<ClassInfo> subtypes) {
+        this.base = base;
+        this.subtypes = subtypes;
+    }
+
+    static SubtypeIndex build(RootNode root, ClassNode base) {
+        if (base == null) {
+            return new SubtypeIndex(null, Collections.emptySet());
+        }
+        long start = System.currentTimeMillis();
+        Map<ClassNode, Boolean> memo = new HashMap<>();
+        memo.put(base, Boolean.TRUE);
+        Set<ClassInfo> set = new HashSet<>();
+        for (ClassNode cls : root.getClasses()) {
+            if (isSubtype(root, cls, memo)) {
+                set.add(cls.getClassInfo());
+            }
+        }
+        set.add(base.getClassInfo());
+        LOG.debug("google-helpers: {} subtypes of {} indexed in {} ms",
+                set.size(), base.getFullName(), System.currentTimeMillis() - start);
+        return new SubtypeIndex(base, set);
+    }
+
+    private static boolean isSubtype(RootNode root, ClassNode cls, Map<ClassNode, Boolean> memo) {
+        Boolean known = memo.get(cls);
+        if (known != null) {
+            return known;
+        }
+        memo.put(cls, Boolean.FALSE); // guard against broken hierarchy cycles
+        boolean result = isSubtype(root, cls.getSuperClass(), memo);
+        if (!result) {
+            List<ArgType> interfaces = cls.getInterfaces();
+            for (ArgType iface : interfaces) {
+                if (isSubtype(root, iface, memo)) {
+                    result = true;
+                    break;
+                }
+            }
+        }
+        memo.put(cls, result);
+        return result;
+    }
+
+    private static boolean isSubtype(RootNode root, ArgType type, Map<ClassNode, Boolean> memo) {
+        if (type == null || !type.isObject()) {
+            return false;
+        }
+        ClassNode superCls;
+        try {
+            superCls = root.resolveClass(type);
+        } catch (Throwable ignore) {
+            return false; // ignore resolution issues
+        }
+        return superCls != null && isSubtype(root, superCls, memo);
+    }
+
+    boolean contains(ClassInfo cls) {
+        return subtypes.contains(cls);
+    }
+
+    ClassNode getBase() {
+        return base;
+    }
+
+    Set<ClassInfo> getSubtypes() {
+        return subtypes;
+    }
+}
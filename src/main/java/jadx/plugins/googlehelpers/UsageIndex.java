@@ -0,0 +1,96 @@
+package jadx.plugins.googlehelpers;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import jadx.core.dex.info.ClassInfo;
+import jadx.core.dex.nodes.ClassNode;
+import jadx.core.dex.nodes.MethodNode;
+import jadx.core.dex.nodes.RootNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Methods calling any of the logger patterns, taken from jadx usage info collected on load.
+ * Lets auto-rename scan only methods with logger call sites instead of the whole app.
+ */
+final class UsageIndex {
+    private static final Logger LOG = LoggerFactory.getLogger(UsageIndex.class);
+
+    private final Set<MethodNode> callers;
+    private final Set<ClassNode> classes;
+
+    private UsageIndex(Set<MethodNode> callers) {
+        this.callers = callers;
+        this.classes = new HashSet<>();
+        for (MethodNode mth : callers) {
+            classes.add(mth.getParentClass());
+        }
+    }
+
+    /**
+     * Callers of all patterns together: the scan checks every pattern in one pass anyway.
+     *
+     * @return null if methods of some pattern are not in the input (e.g. framework {@code android.util.Log}),
+     *         so callers can't be collected
+     */
+    static UsageIndex build(RootNode root, CallPatterns patterns) {
+        Set<MethodNode> callers = new HashSet<>();
+        for (CallMatcher matcher : patterns.getMatchers()) {
+            Set<MethodNode> set = collectCallers(root, matcher);
+            if (set == null) return null;
+            callers.addAll(set);
+        }
+        return new UsageIndex(callers);
+    }
+
+    /**
+     * Callers of all methods matched by the matcher: the method itself and, for subtype matchers,
+     * every implementation and override.
+     */
+    private static Set<MethodNode> collectCallers(RootNode root, CallMatcher matcher) {
+        List<MethodNode> targets = new ArrayList<>();
+        for (ClassInfo owner : matcher.getOwners()) {
+            ClassNode cls = root.resolveClass(owner);
+            if (cls == null) continue;
+            for (MethodNode mth : cls.getMethods()) {
+                if (matcher.matches(mth.getMethodInfo())) {
+                    targets.add(mth);
+                }
+            }
+        }
+        if (targets.isEmpty()) {
+            LOG.debug("google-helpers: no methods for {} in input, usage info not applicable", matcher);
+            return null;
+        }
+        Set<MethodNode> callers = new HashSet<>();
+        for (MethodNode target : targets) {
+            callers.addAll(target.getUseIn());
+        }
+        LOG.debug("google-helpers: {} callers of {} ({} target methods)", callers.size(), matcher, targets.size());
+        return callers;
+    }
+
+    /**
+     * Classes with logger call sites, in the order of the given list.
+     */
+    List<ClassNode> filterClasses(List<ClassNode> allClasses) {
+        List<ClassNode> list = new ArrayList<>(classes.size());
+        for (ClassNode cls : allClasses) {
+            if (classes.contains(cls)) {
+                list.add(cls);
+            }
+        }
+        return list;
+    }
+
+    boolean containsClass(ClassNode cls) {
+        return classes.contains(cls);
+    }
+
+    boolean callsLogger(MethodNode mth) {
+        return callers.contains(mth);
+    }
+}
@@ -0,0 +1,80 @@
+package jadx.plugins.googlehelpers;
+
+import jadx.api.JadxArgs;
+import jadx.api.JadxDecompiler;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AutoRenameRunnerTest {
+    private static final int CLASSES = 300; // several scan batches
+    private static final int NAMES = 40; // found class names, the rest are collisions
+
+    @TempDir
+    static Path dir;
+
+    private static JadxDecompiler jadx;
+
+    @BeforeAll
+    static void load() throws Exception {
+        List<File> files = new ArrayList<>();
+        files.add(SmaliSamples.getSampleFile("scan/log_L.smali"));
+        for (int i = 0; i < CLASSES; i++) {
+            Path file = dir.resolve("c" + i + ".smali");
+            Files.writeString(file, generatedClass(i));
+            files.add(file.toFile());
+        }
+        JadxArgs args = SmaliSamples.args(files);
+        args.setThreadsCount(4);
+        jadx = SmaliSamples.load(args);
+    }
+
+    @AfterAll
+    static void close() {
+        jadx.close();
+    }
+
+    @Test
+    public void parallelScanGivesSameRenames() throws Exception {
+        String sequential = scan(false);
+        String parallel = scan(true);
+        assertThat(parallel).isEqualTo(sequential);
+        assertThat(sequential.split("\n")).hasSize(CLASSES * 2); // class and method line per class
+        assertThat(sequential).contains("gen.c0 = app.N0\n", "gen.c0.b()V = m0\n");
+    }
+
+    private static String scan(boolean parallel) throws IOException {
+        CallPatterns patterns = CallPatterns.of(null, null, CallPattern.parseAll(jadx.getRoot(), "log/L.at=0,1"));
+        AutoRenameRunner runner = new AutoRenameRunner(patterns, false, new RenameMetrics(), null);
+        assertThat(runner.scan(jadx.getRoot(), parallel, ClassFilter.ACCEPT_ALL, false)).isTrue();
+        assertThat(runner.isComplete()).isTrue();
+        StringWriter out = new StringWriter();
+        runner.getRenameMap().writeText(out);
+        return out.toString();
+    }
+
+    private static String generatedClass(int i) {
+        return ".class public Lgen/c" + i + ";\n"
+                + ".super Ljava/lang/Object;\n"
+                + "\n"
+                + ".method public b()V\n"
+                + "    .registers 3\n"
+                + "\n"
+                + "    const-string v0, \"app.N" + (i % NAMES) + "\"\n"
+                + "    const-string v1, \"m" + i + "\"\n"
+                + "    invoke-static {v0, v1}, Llog/L;->at(Ljava/lang/String;Ljava/lang/String;)V\n"
+                + "    return-void\n"
+                + ".end method\n";
+    }
+}
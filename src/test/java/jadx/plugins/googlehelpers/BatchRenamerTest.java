@@ -0,0 +1,46 @@
+package jadx.plugins.googlehelpers;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BatchRenamerTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    public void sameFileNamesInDirectoryKeepRelativePath() throws Exception {
+        Path apks = dir.resolve("apks");
+        Path v1 = touch(apks.resolve("v1/base.apk"));
+        Path v2 = touch(apks.resolve("v2/base.apk"));
+        touch(apks.resolve("v2/notes.txt"));
+
+        Map<File, String> inputs = BatchRenamer.collectInputs(Arrays.asList(apks.toString()));
+        assertThat(inputs).containsOnlyKeys(v1.toFile(), v2.toFile());
+        assertThat(inputs.get(v1.toFile())).isEqualTo("v1/base.apk.renames.txt");
+        assertThat(inputs.get(v2.toFile())).isEqualTo("v2/base.apk.renames.txt");
+    }
+
+    @Test
+    public void duplicateOutputRejected() throws Exception {
+        Path v1 = touch(dir.resolve("v1/base.apk"));
+        Path v2 = touch(dir.resolve("v2/base.apk"));
+
+        assertThatThrownBy(() -> BatchRenamer.collectInputs(Arrays.asList(v1.toString(), v2.toString())))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("base.apk.renames.txt");
+    }
+
+    private static Path touch(Path file) throws Exception {
+        Files.createDirectories(file.getParent());
+        return Files.write(file, new byte[] { 1 });
+    }
+}
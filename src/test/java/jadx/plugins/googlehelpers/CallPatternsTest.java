@@ -0,0 +1,94 @@
+package jadx.plugins.googlehelpers;
+
+import jadx.api.JadxDecompiler;
+import jadx.core.dex.nodes.ClassNode;
+import jadx.core.dex.nodes.RootNode;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class CallPatternsTest {
+    private static JadxDecompiler jadx;
+    private static RootNode root;
+
+    @BeforeAll
+    static void load() throws Exception {
+        jadx = SmaliSamples.load("scan/log_L.smali", "scan/obf_a.smali", "scan/obf_m.smali",
+                "scan/obf_f.smali");
+        root = jadx.getRoot();
+    }
+
+    @AfterAll
+    static void close() {
+        jadx.close();
+    }
+
+    @Test
+    public void parseUserPatterns() {
+        List<CallPattern> list = CallPattern.parseAll(root,
+                "log/L.at=0,1 log/L.tag | log/L.at=-,1 log/L.at=a log/L.at=-,- log/L.at=0,1,2 log/L.at=-1 nodot");
+        assertThat(list)
+                .extracting(CallPattern::getClassArg, CallPattern::getMethodArg)
+                .containsExactly(tuple(0, 1), tuple(0, CallPattern.NO_ARG), tuple(CallPattern.NO_ARG, 1));
+    }
+
+    @Test
+    public void allPatternsInOnePass() {
+        ClassNode cls = SmaliSamples.getClass(jadx, "obf.m");
+        // tag("app.Low") comes first, but later patterns take precedence
+        ClassScanResult result = RenameFromLogsPass.scanClassFromLogs(cls, patterns("log/L.tag=0|log/L.at=0,1"), false, null);
+        assertThat(result.getClassName()).isEqualTo("app.High");
+        assertThat(result.getMethodRenames()).extracting(ClassScanResult.MethodRename::getName).containsExactly("run");
+        assertThat(result.getStats().methodsScanned).isEqualTo(1);
+        assertThat(result.getStats().invokesExamined).isEqualTo(2);
+
+        result = RenameFromLogsPass.scanClassFromLogs(cls, patterns("log/L.at=0,1|log/L.tag=0"), false, null);
+        assertThat(result.getClassName()).isEqualTo("app.Low");
+        assertThat(result.getMethodRenames()).extracting(ClassScanResult.MethodRename::getName).containsExactly("run");
+    }
+
+    @Test
+    public void classNamesOnlyStopsAtConfidentName() {
+        ClassNode cls = SmaliSamples.getClass(jadx, "obf.a");
+        CallPatterns full = patterns("log/L.at=0,1");
+        ClassScanResult result = RenameFromLogsPass.scanClassFromLogs(cls, full, false, null);
+        assertThat(result.getMethodRenames()).hasSize(2);
+        assertThat(result.getStats().methodsScanned).isEqualTo(2);
+        assertThat(result.getStats().earlyExits).isZero();
+
+        CallPatterns namesOnly = full.classNamesOnly();
+        assertThat(namesOnly.isClassNamesOnly()).isTrue();
+        assertThat(namesOnly.getKey()).isNotEqualTo(full.getKey());
+        result = RenameFromLogsPass.scanClassFromLogs(cls, namesOnly, false, null);
+        assertThat(result.getClassName()).isEqualTo("app.Foo");
+        assertThat(result.getMethodRenames()).isEmpty();
+        assertThat(result.getStats().methodsScanned).isEqualTo(1);
+        assertThat(result.getStats().earlyExits).isEqualTo(1);
+    }
+
+    @Test
+    public void classNamesOnlyGivesSameNameAsFullScan() {
+        ClassNode cls = SmaliSamples.getClass(jadx, "obf.f");
+        // factory name found in <clinit> is replaced by a later setLocation name
+        RenameFromLogsPass.MethodRef factory = RenameFromLogsPass.MethodRef.parse("log/L->tag(Ljava/lang/String;)V");
+        RenameFromLogsPass.MethodRef location =
+                RenameFromLogsPass.MethodRef.parse("log/L->at(Ljava/lang/String;Ljava/lang/String;)V");
+        CallPatterns full = CallPatterns.of(RenameFromLogsPass.compileFactory(root, factory),
+                RenameFromLogsPass.compileLocation(root, location));
+        ClassScanResult result = RenameFromLogsPass.scanClassFromLogs(cls, full, false, null);
+        assertThat(result.getClassName()).isEqualTo("app.Outer$Inner");
+
+        result = RenameFromLogsPass.scanClassFromLogs(cls, full.classNamesOnly(), false, null);
+        assertThat(result.getClassName()).isEqualTo("app.Outer$Inner");
+        assertThat(result.getStats().methodsScanned).isEqualTo(2);
+    }
+
+    private static CallPatterns patterns(String spec) {
+        return CallPatterns.of(null, null, CallPattern.parseAll(root, spec));
+    }
+}
@@ -0,0 +1,87 @@
+package jadx.plugins.googlehelpers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClassFilterTest {
+
+    @Test
+    public void prefixOnSegmentBoundary() {
+        ClassFilter filter = include("com.example", "a.b.C");
+        assertThat(accepts(filter, "com.example.Foo")).isTrue();
+        assertThat(accepts(filter, "com.example.sub.Bar")).isTrue();
+        assertThat(accepts(filter, "com.examples.Foo")).isFalse();
+        assertThat(accepts(filter, "com.exampleFoo")).isFalse();
+        assertThat(accepts(filter, "a.b.C")).isTrue();
+        assertThat(accepts(filter, "a.b.C$Inner")).isTrue();
+        assertThat(accepts(filter, "a.b.Cx")).isFalse();
+    }
+
+    @Test
+    public void slashDescriptorAndWildcardForms() {
+        ClassFilter filter = include("com/google/protobuf", "La/b/C;", "x.y.*", "p.q.**");
+        assertThat(accepts(filter, "com.google.protobuf.Any")).isTrue();
+        assertThat(accepts(filter, "a.b.C")).isTrue();
+        assertThat(accepts(filter, "x.y.Z")).isTrue();
+        assertThat(accepts(filter, "p.q.r.S")).isTrue();
+        assertThat(accepts(filter, "com.google.Other")).isFalse();
+    }
+
+    @Test
+    public void globs() {
+        ClassFilter filter = include("com.*.internal", "a.b.?Impl");
+        assertThat(accepts(filter, "com.foo.internal.X")).isTrue();
+        assertThat(accepts(filter, "com.foo.bar.internal.X")).isFalse();
+        assertThat(accepts(filter, "a.b.XImpl")).isTrue();
+        assertThat(accepts(filter, "a.b.XImpl$1")).isTrue();
+        assertThat(accepts(filter, "a.b.XYImpl")).isFalse();
+    }
+
+    @Test
+    public void doubleStarCrossesSegments() {
+        ClassFilter filter = include("com.**.internal");
+        assertThat(accepts(filter, "com.foo.internal.X")).isTrue();
+        assertThat(accepts(filter, "com.foo.bar.internal.X")).isTrue();
+        assertThat(accepts(filter, "com.foo.external.X")).isFalse();
+    }
+
+    @Test
+    public void excludeWins() {
+        ClassFilter filter = ClassFilter.compile(Arrays.asList("com"), Arrays.asList("com.google", "*.R"));
+        assertThat(accepts(filter, "com.example.Foo")).isTrue();
+        assertThat(accepts(filter, "com.google.Foo")).isFalse();
+        assertThat(accepts(filter, "org.Foo")).isFalse();
+
+        filter = ClassFilter.compile(Collections.emptyList(), Arrays.asList("androidx", "*.R"));
+        assertThat(accepts(filter, "com.Foo")).isTrue();
+        assertThat(accepts(filter, "androidx.core.Foo")).isFalse();
+        assertThat(accepts(filter, "app.R")).isFalse();
+        assertThat(accepts(filter, "app.R$string")).isFalse();
+    }
+
+    @Test
+    public void renamedClassMatchedByAlias() {
+        ClassFilter filter = ClassFilter.compile(Arrays.asList("app"), Arrays.asList("app.internal"));
+        assertThat(filter.accepts("obf.a", "app.Foo")).isTrue();
+        assertThat(filter.accepts("obf.b", "app.internal.Bar")).isFalse();
+        assertThat(filter.accepts("obf.c", "obf.c")).isFalse();
+    }
+
+    @Test
+    public void emptyAcceptsAll() {
+        assertThat(ClassFilter.compile(Collections.emptyList(), Collections.emptyList())).isSameAs(ClassFilter.ACCEPT_ALL);
+        assertThat(accepts(ClassFilter.ACCEPT_ALL, "any.Cls")).isTrue();
+    }
+
+    private static ClassFilter include(String... entries) {
+        return ClassFilter.compile(Arrays.asList(entries), Collections.emptyList());
+    }
+
+    private static boolean accepts(ClassFilter filter, String name) {
+        return filter.accepts(name, name);
+    }
+}
@@ -0,0 +1,100 @@
+package jadx.plugins.googlehelpers;
+
+import jadx.api.JadxDecompiler;
+import jadx.core.dex.nodes.ClassNode;
+import jadx.core.dex.nodes.MethodNode;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClassHasherTest {
+    private static JadxDecompiler v1;
+    private static JadxDecompiler v2;
+    private static JadxDecompiler v3;
+
+    @BeforeAll
+    static void load() throws Exception {
+        v1 = SmaliSamples.load("hash/v1/obf_a.smali", "hash/v1/obf_b.smali");
+        // same code, all names changed by obfuscation
+        v2 = SmaliSamples.load("hash/v2/q_z.smali", "hash/v2/q_k.smali");
+        // same names, other string constant
+        v3 = SmaliSamples.load("hash/v3/obf_a.smali", "hash/v1/obf_b.smali");
+    }
+
+    @AfterAll
+    static void close() {
+        v1.close();
+        v2.close();
+        v3.close();
+    }
+
+    @Test
+    public void reobfuscatedClassKeepsHash() {
+        ClassNode prev = SmaliSamples.getClass(v1, "obf.a");
+        ClassNode next = SmaliSamples.getClass(v2, "q.z");
+        assertThat(hash(v2, next)).isEqualTo(hash(v1, prev));
+        assertThat(methodHash(v2, SmaliSamples.getMethod(next, "w")))
+                .isEqualTo(methodHash(v1, SmaliSamples.getMethod(prev, "x")));
+    }
+
+    @Test
+    public void changedStringChangesHash() {
+        ClassNode prev = SmaliSamples.getClass(v1, "obf.a");
+        ClassNode next = SmaliSamples.getClass(v3, "obf.a");
+        assertThat(hash(v3, next)).isNotEqualTo(hash(v1, prev));
+        assertThat(methodHash(v3, SmaliSamples.getMethod(next, "x")))
+                .isNotEqualTo(methodHash(v1, SmaliSamples.getMethod(prev, "x")));
+    }
+
+    @Test
+    public void reuseBindsRenamedMethodsByHash() {
+        ClassNode prev = SmaliSamples.getClass(v1, "obf.a");
+        ClassNode next = SmaliSamples.getClass(v2, "q.z");
+        RenameMap.ClassEntry entry = new RenameMap.ClassEntry("obf.a", "com.example.Foo", Arrays.asList(
+                methodEntry(v1, prev, "x", "logHello"),
+                methodEntry(v1, prev, "p", "first"),
+                methodEntry(v1, prev, "r", "second")), hash(v1, prev));
+
+        ClassScanResult result = RenameMap.reuse(next, methodHashes(v2, next), entry);
+
+        assertThat(result.getClassName()).isEqualTo("com.example.Foo");
+        // p() and s() (was r()) have the same code: p() is picked by short id, s() is left alone
+        assertThat(renames(result)).containsExactlyInAnyOrderEntriesOf(Map.of("w", "logHello", "p", "first"));
+    }
+
+    private static RenameMap.MethodEntry methodEntry(JadxDecompiler jadx, ClassNode cls, String name,
+            String newName) {
+        MethodNode mth = SmaliSamples.getMethod(cls, name);
+        return new RenameMap.MethodEntry(mth.getMethodInfo().getShortId(), newName, methodHash(jadx, mth));
+    }
+
+    private static Map<String, String> renames(ClassScanResult result) {
+        Map<String, String> map = new HashMap<>();
+        for (ClassScanResult.MethodRename rename : result.getMethodRenames()) {
+            map.put(rename.getMth().getMethodInfo().getName(), rename.getName());
+        }
+        return map;
+    }
+
+    private static long hash(JadxDecompiler jadx, ClassNode cls) {
+        return new ClassHasher(jadx.getRoot()).hash(cls, new long[cls.getMethods().size()]);
+    }
+
+    private static long[] methodHashes(JadxDecompiler jadx, ClassNode cls) {
+        long[] hashes = new long[cls.getMethods().size()];
+        new ClassHasher(jadx.getRoot()).hash(cls, hashes);
+        return hashes;
+    }
+
+    private static long methodHash(JadxDecompiler jadx, MethodNode mth) {
+        List<MethodNode> methods = mth.getParentClass().getMethods();
+        return methodHashes(jadx, mth.getParentClass())[methods.indexOf(mth)];
+    }
+}
@@ -0,0 +1,105 @@
+package jadx.plugins.googlehelpers;
+
+import jadx.api.JadxDecompiler;
+import jadx.core.dex.nodes.ClassNode;
+import jadx.core.dex.nodes.RootNode;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClassNameIndexTest {
+    private static JadxDecompiler jadx;
+    private static RootNode root;
+    private static ClassNode a;
+    private static ClassNode b;
+    private static ClassNode c;
+    private static ClassNode d;
+
+    @BeforeAll
+    static void load() throws Exception {
+        jadx = SmaliSamples.load("names/obf_a.smali", "names/obf_b.smali", "names/obf_c.smali", "names/obf_d.smali",
+                "names/app_Taken.smali", "names/app_Taken_1.smali");
+        root = jadx.getRoot();
+        a = SmaliSamples.getClass(jadx, "obf.a");
+        b = SmaliSamples.getClass(jadx, "obf.b");
+        c = SmaliSamples.getClass(jadx, "obf.c");
+        d = SmaliSamples.getClass(jadx, "obf.d");
+    }
+
+    @AfterAll
+    static void close() {
+        jadx.close();
+    }
+
+    @Test
+    public void suffixOrderDoesNotDependOnScanOrder() {
+        List<ClassScanResult> results = Arrays.asList(
+                result(b, "app.Foo", false), result(c, "app/Foo", true), result(a, "Lapp/Foo;", false));
+        for (int i = 0; i < results.size(); i++) {
+            ClassNameIndex names = ClassNameIndex.of(root, results);
+            names.assign();
+            // class setting the logger in <clinit> keeps the name, others by raw name
+            assertThat(names.getAssigned(c)).isEqualTo("app.Foo");
+            assertThat(names.getAssigned(a)).isEqualTo("app.Foo$1");
+            assertThat(names.getAssigned(b)).isEqualTo("app.Foo$2");
+            assertThat(names.getCollisions()).isEqualTo(1);
+            results = rotate(results);
+        }
+    }
+
+    @Test
+    public void suffixProposedForOtherClassIsSkipped() {
+        ClassNameIndex names = ClassNameIndex.of(root, Arrays.asList(
+                result(a, "app.Foo", false), result(b, "app.Foo", false), result(d, "app.Foo$1", false)));
+        names.assign();
+        assertThat(names.getAssigned(a)).isEqualTo("app.Foo");
+        assertThat(names.getAssigned(b)).isEqualTo("app.Foo$2");
+        assertThat(names.getAssigned(d)).isEqualTo("app.Foo$1");
+    }
+
+    @Test
+    public void namesOfOtherClassesAreSkipped() {
+        // app.Taken and app.Taken$1 exist and are not renamed
+        ClassNameIndex names = ClassNameIndex.of(root, Arrays.asList(
+                result(a, "app.Taken", false), result(b, "app.Taken", false)));
+        names.assign();
+        assertThat(names.getAssigned(a)).isEqualTo("app.Taken$2");
+        assertThat(names.getAssigned(b)).isEqualTo("app.Taken$3");
+    }
+
+    @Test
+    public void currentNameOfProposingClassIsKept() {
+        ClassNameIndex names = ClassNameIndex.of(root, Arrays.asList(result(a, "obf.a", false)));
+        names.assign();
+        assertThat(names.getAssigned(a)).isEqualTo("obf.a");
+        assertThat(names.getCollisions()).isZero();
+    }
+
+    @Test
+    public void claimInLazyMode() {
+        ClassNameIndex names = new ClassNameIndex(root);
+        assertThat(names.claim(a, "app.Bar")).isEqualTo("app.Bar");
+        assertThat(names.claim(b, "app.Bar")).isEqualTo("app.Bar$1");
+        assertThat(names.claim(a, "app.Bar")).isEqualTo("app.Bar"); // same class decompiled again
+        assertThat(names.claim(c, "app/Taken")).isEqualTo("app.Taken$2");
+        assertThat(names.getCollisions()).isEqualTo(2);
+    }
+
+    private static ClassScanResult result(ClassNode cls, String name, boolean fromClassInit) {
+        ClassScanResult result = new ClassScanResult(cls);
+        result.addClassName(name, 0, fromClassInit);
+        return result;
+    }
+
+    private static <T> List<T> rotate(List<T> list) {
+        List<T> rotated = new ArrayList<>(list.subList(1, list.size()));
+        rotated.add(list.get(0));
+        return rotated;
+    }
+}
@@ -0,0 +1,54 @@
+package jadx.plugins.googlehelpers;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClassScanResultTest {
+
+    @Test
+    public void higherPriorityWins() {
+        ClassScanResult result = votes();
+        result.addClassName("app.A", 0, true);
+        result.addClassName("app.B", 1, false);
+        result.addClassName("app.A", 0, true);
+        assertThat(result.getClassName()).isEqualTo("app.B");
+        assertThat(result.getClassNamePriority()).isEqualTo(1);
+    }
+
+    @Test
+    public void classInitWinsOverCount() {
+        ClassScanResult result = votes();
+        result.addClassName("app.A", 0, false);
+        result.addClassName("app.A", 0, false);
+        result.addClassName("app.B", 0, true);
+        assertThat(result.getClassName()).isEqualTo("app.B");
+        assertThat(result.isClassNameFromClassInit()).isTrue();
+    }
+
+    @Test
+    public void mostVotesWin() {
+        ClassScanResult result = votes();
+        result.addClassName("app.A", 0, false);
+        result.addClassName("app.B", 0, false);
+        result.addClassName("app.B", 0, false);
+        assertThat(result.getClassName()).isEqualTo("app.B");
+    }
+
+    @Test
+    public void firstFoundWinsTie() {
+        ClassScanResult result = votes();
+        result.addClassName("app.A", 0, false);
+        result.addClassName("app.B", 0, false);
+        assertThat(result.getClassName()).isEqualTo("app.A");
+
+        result = votes();
+        result.addClassName("app.B", 0, false);
+        result.addClassName("app.A", 0, false);
+        assertThat(result.getClassName()).isEqualTo("app.B");
+    }
+
+    private static ClassScanResult votes() {
+        return new ClassScanResult(null); // votes don't touch the class
+    }
+}
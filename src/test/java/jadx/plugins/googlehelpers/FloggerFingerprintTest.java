@@ -0,0 +1,53 @@
+package jadx.plugins.googlehelpers;
+
+import jadx.api.JadxDecompiler;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FloggerFingerprintTest {
+
+    @Test
+    public void factoryLinkedToLocation() throws Exception {
+        try (JadxDecompiler jadx = load("x_Base.smali", "x_Lg.smali", "x_Api.smali", "y_Parser.smali", "app_User.smali")) {
+            FloggerFingerprint fp = FloggerFingerprint.search(jadx.getRoot());
+            // Parser.parse(String) has more callers, but nothing links it to the logger
+            assertThat(fp.getFactoryRef()).isNotNull();
+            assertThat(fp.getFactoryRef().ownerDot).isEqualTo("x.Lg");
+            assertThat(fp.getFactoryRef().name).isEqualTo("a");
+            assertThat(fp.getLocationRef()).isNotNull();
+            assertThat(fp.getLocationRef().ownerDot).isEqualTo("x.Api");
+            assertThat(fp.getLocationRef().name).isEqualTo("c");
+            assertThat(FloggerFingerprint.forRoot(jadx.getRoot())).isSameAs(FloggerFingerprint.forRoot(jadx.getRoot()));
+        }
+    }
+
+    @Test
+    public void factoryShapeAloneNotFound() throws Exception {
+        try (JadxDecompiler jadx = load("y_Parser.smali", "app_NoLog.smali", "app_User.smali", "x_Lg.smali",
+                "x_Base.smali")) {
+            // x.Api is missing: no setLocation, so no factory either
+            FloggerFingerprint fp = FloggerFingerprint.search(jadx.getRoot());
+            assertThat(fp.getFactoryRef()).isNull();
+            assertThat(fp.getLocationRef()).isNull();
+        }
+    }
+
+    @Test
+    public void severalLocationsAreAmbiguous() throws Exception {
+        try (JadxDecompiler jadx = load("x_Base.smali", "x_Lg.smali", "x_Api.smali", "x_Api2.smali",
+                "y_Parser.smali", "app_User.smali")) {
+            FloggerFingerprint fp = FloggerFingerprint.search(jadx.getRoot());
+            assertThat(fp.getFactoryRef()).isNull();
+            assertThat(fp.getLocationRef()).isNull();
+        }
+    }
+
+    private static JadxDecompiler load(String... fileNames) throws Exception {
+        String[] paths = new String[fileNames.length];
+        for (int i = 0; i < fileNames.length; i++) {
+            paths[i] = "fingerprint/" + fileNames[i];
+        }
+        return SmaliSamples.load(paths);
+    }
+}
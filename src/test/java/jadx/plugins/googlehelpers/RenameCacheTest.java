@@ -0,0 +1,112 @@
+package jadx.plugins.googlehelpers;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RenameCacheTest {
+    @TempDir
+    Path dir;
+
+    private Path cacheDir;
+    private Path input;
+    private List<File> inputs;
+
+    @BeforeEach
+    void setup() throws IOException {
+        cacheDir = dir.resolve("renames");
+        input = dir.resolve("app.dex");
+        Files.writeString(input, "v1");
+        inputs = Collections.singletonList(input.toFile());
+    }
+
+    @Test
+    public void roundTrip() throws Exception {
+        RenameCache cache = RenameCache.forInputs(cacheDir, inputs, options(Map.of()));
+        assertThat(cache.load()).isNull();
+        RenameMap map = sampleMap();
+        cache.save(new RenameCache.Entry("a/b.c", null, map));
+
+        RenameCache.Entry loaded = RenameCache.forInputs(cacheDir, inputs, options(Map.of())).load();
+        assertThat(loaded).isNotNull();
+        assertThat(loaded.getFactoryRef()).isEqualTo("a/b.c");
+        assertThat(loaded.getLocationRef()).isNull();
+        assertThat(loaded.isComplete()).isTrue();
+        assertThat(text(loaded.getRenames())).isEqualTo(text(map));
+        RenameMap.ClassEntry entry = loaded.getRenames().getEntries().get(0);
+        assertThat(entry.hash).isEqualTo(7L);
+        assertThat(entry.methods.get(0).hash).isEqualTo(42L);
+    }
+
+    @Test
+    public void inputChangeInvalidates() throws Exception {
+        RenameCache.forInputs(cacheDir, inputs, options(Map.of())).save(new RenameCache.Entry(null, null, sampleMap()));
+        Files.writeString(input, "v2");
+        assertThat(RenameCache.forInputs(cacheDir, inputs, options(Map.of())).load()).isNull();
+    }
+
+    @Test
+    public void optionChangeInvalidates() throws Exception {
+        RenameCache.forInputs(cacheDir, inputs, options(Map.of())).save(new RenameCache.Entry(null, null, sampleMap()));
+        assertThat(load("patterns", "log/L.tag=0")).isNull();
+        assertThat(load("exclude", "androidx")).isNull();
+        assertThat(load("classNamesOnly", "true")).isNull();
+        assertThat(load("methodBudget", "100")).isNull();
+        // deadline only decides if results are saved
+        assertThat(load("scanDeadlineSec", "60")).isNotNull();
+        assertThat(load("parallelScan", "false")).isNotNull();
+    }
+
+    @Test
+    public void completeFlagKept() throws Exception {
+        Path file = dir.resolve("shard-0.bin");
+        RenameCache.write(file, "shard-0-of-2", new RenameCache.Entry(null, null, sampleMap(), false));
+        RenameCache.Entry loaded = RenameCache.loadFile(file);
+        assertThat(loaded).isNotNull();
+        assertThat(loaded.isComplete()).isFalse();
+        assertThat(loaded.getRenames().size()).isEqualTo(1);
+    }
+
+    @Test
+    public void fileNotLockedAfterLoad() throws Exception {
+        RenameCache cache = RenameCache.forInputs(cacheDir, inputs, options(Map.of()));
+        cache.save(new RenameCache.Entry(null, null, sampleMap()));
+        assertThat(cache.load()).isNotNull();
+        // fails on Windows while the file is mapped
+        Files.delete(cache.getFile());
+        assertThat(cache.load()).isNull();
+    }
+
+    private RenameCache.Entry load(String option, String value) throws IOException {
+        return RenameCache.forInputs(cacheDir, inputs, options(Map.of(GoogleHelpersPlugin.PLUGIN_ID + '.' + option, value))).load();
+    }
+
+    private static GoogleHelpersOptions options(Map<String, String> values) {
+        GoogleHelpersOptions options = new GoogleHelpersOptions();
+        options.setOptions(values);
+        return options;
+    }
+
+    private static RenameMap sampleMap() {
+        return new RenameMap(Arrays.asList(new RenameMap.ClassEntry("obf.a", "app.Foo",
+                Arrays.asList(new RenameMap.MethodEntry("b()V", "start", 42L)), 7L)));
+    }
+
+    private static String text(RenameMap map) throws IOException {
+        StringWriter out = new StringWriter();
+        map.writeText(out);
+        return out.toString();
+    }
+}
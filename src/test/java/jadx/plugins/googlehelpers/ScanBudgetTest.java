@@ -0,0 +1,88 @@
+package jadx.plugins.googlehelpers;
+
+import jadx.api.JadxDecompiler;
+import jadx.core.dex.nodes.ClassNode;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScanBudgetTest {
+    private static JadxDecompiler jadx;
+    private static ClassNode big;
+    private static CallPatterns patterns;
+
+    @BeforeAll
+    static void load() throws Exception {
+        jadx = SmaliSamples.load("scan/log_L.smali", "scan/obf_a.smali", "scan/obf_big.smali");
+        big = SmaliSamples.getClass(jadx, "obf.big");
+        patterns = CallPatterns.of(null, null, CallPattern.parseAll(jadx.getRoot(), "log/L.at=0,1"));
+    }
+
+    @AfterAll
+    static void close() {
+        jadx.close();
+    }
+
+    @Test
+    public void bigMethodDeferred() {
+        // b() has 8 code units, c() has 18
+        ScanBudget budget = new ScanBudget(10, 0, Long.MAX_VALUE);
+        ClassScanResult result = RenameFromLogsPass.scanClassFromLogs(big, patterns, false, null, budget);
+        assertThat(result.getDeferred()).containsExactly(SmaliSamples.getMethod(big, "c"));
+        assertThat(result.getStats().methodsDeferred).isEqualTo(1);
+        assertThat(methodNames(result)).containsExactly("small");
+
+        RenameFromLogsPass.scanDeferred(result, patterns, false, budget);
+        assertThat(result.getDeferred()).isEmpty();
+        assertThat(result.getStats().methodsDeferredSkipped).isZero();
+        assertThat(methodNames(result)).containsExactly("small", "large");
+    }
+
+    @Test
+    public void deferredMethodsSkippedAtDeadline() {
+        ClassScanResult result = RenameFromLogsPass.scanClassFromLogs(big, patterns, false, null,
+                new ScanBudget(10, 0, Long.MAX_VALUE));
+        RenameFromLogsPass.scanDeferred(result, patterns, false, expired());
+        assertThat(result.getDeferred()).isEmpty();
+        assertThat(result.getStats().methodsDeferredSkipped).isEqualTo(1);
+        assertThat(methodNames(result)).containsExactly("small");
+    }
+
+    @Test
+    public void runnerCompletesDeferredMethods() throws Exception {
+        AutoRenameRunner runner = new AutoRenameRunner(patterns, false, new RenameMetrics(), null);
+        runner.setBudget(new ScanBudget(10, 0, Long.MAX_VALUE));
+        assertThat(runner.scan(jadx.getRoot(), false, ClassFilter.ACCEPT_ALL, false)).isTrue();
+        assertThat(runner.isComplete()).isTrue();
+        StringWriter out = new StringWriter();
+        runner.getRenameMap().writeText(out);
+        assertThat(out.toString()).contains("obf.big.b()V = small\n", "obf.big.c()V = large\n");
+    }
+
+    @Test
+    public void runnerStopsAtDeadline() {
+        AutoRenameRunner runner = new AutoRenameRunner(patterns, false, new RenameMetrics(), null);
+        runner.setBudget(expired());
+        assertThat(runner.scan(jadx.getRoot(), false, ClassFilter.ACCEPT_ALL, false)).isTrue();
+        assertThat(runner.isComplete()).isFalse();
+        assertThat(runner.getRenameMap().size()).isZero();
+    }
+
+    private static ScanBudget expired() {
+        return new ScanBudget(0, 0, System.nanoTime() - 1);
+    }
+
+    private static List<String> methodNames(ClassScanResult result) {
+        List<String> names = new ArrayList<>();
+        for (ClassScanResult.MethodRename rename : result.getMethodRenames()) {
+            names.add(rename.getName());
+        }
+        return names;
+    }
+}
@@ -0,0 +1,65 @@
+package jadx.plugins.googlehelpers;
+
+import jadx.api.JadxDecompiler;
+import jadx.core.dex.nodes.ClassNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShardedScanTest {
+
+    @Test
+    public void shardFilterDoesNotDependOnClassOrder() throws Exception {
+        try (JadxDecompiler jadx = SmaliSamples.load("names/obf_a.smali", "names/obf_b.smali", "names/obf_c.smali",
+                "names/obf_d.smali", "names/app_Taken.smali", "names/app_Taken_1.smali", "scan/log_L.smali")) {
+            List<ClassNode> classes = new ArrayList<>(jadx.getRoot().getClasses(true));
+            List<String> shard0 = shard(classes, 0);
+            List<String> shard1 = shard(classes, 1);
+            // biggest package first into the empty shard, the others into the less loaded one
+            assertThat(shard0).containsExactly("obf.a", "obf.b", "obf.c", "obf.d");
+            assertThat(shard1).containsExactly("app.Taken", "app.Taken$1", "log.L");
+
+            for (int i = 0; i < classes.size(); i++) {
+                Collections.rotate(classes, 1);
+                assertThat(shard(classes, 0)).isEqualTo(shard0);
+                assertThat(shard(classes, 1)).isEqualTo(shard1);
+            }
+            Collections.reverse(classes);
+            assertThat(shard(classes, 0)).isEqualTo(shard0);
+            assertThat(shard(classes, 1)).isEqualTo(shard1);
+        }
+    }
+
+    @Test
+    public void mergeKeepsFirstNonEmptyEntry() {
+        RenameMap first = new RenameMap(Arrays.asList(
+                new RenameMap.ClassEntry("obf.a", null, Collections.emptyList()),
+                new RenameMap.ClassEntry("obf.b", "app.First", Collections.emptyList())));
+        RenameMap second = new RenameMap(Arrays.asList(
+                new RenameMap.ClassEntry("obf.a", "app.Foo", Collections.emptyList()),
+                new RenameMap.ClassEntry("obf.b", "app.Second", Collections.emptyList()),
+                new RenameMap.ClassEntry("obf.c", "app.Bar", Collections.emptyList())));
+
+        RenameMap merged = RenameMap.merge(Arrays.asList(first, second));
+        List<String> names = merged.getEntries().stream()
+                .map(e -> e.rawName + " -> " + e.newName)
+                .collect(Collectors.toList());
+        assertThat(names).containsExactly("obf.a -> app.Foo", "obf.b -> app.First", "obf.c -> app.Bar");
+    }
+
+    private static List<String> shard(List<ClassNode> classes, int index) {
+        Predicate<ClassNode> filter = ShardedScan.shardFilter(classes, "package", index, 2);
+        return classes.stream()
+                .filter(filter)
+                .map(ClassNode::getRawName)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,74 @@
+package jadx.plugins.googlehelpers;
+
+import jadx.api.JadxArgs;
+import jadx.api.JadxDecompiler;
+import jadx.core.dex.nodes.ClassNode;
+import jadx.core.dex.nodes.MethodNode;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Loading of smali samples from test resources.
+ */
+final class SmaliSamples {
+
+    private SmaliSamples() {
+    }
+
+    /**
+     * Args for samples with plugin passes disabled, so tests drive the scan directly.
+     */
+    static JadxArgs args(String... fileNames) throws URISyntaxException {
+        List<File> files = new ArrayList<>();
+        for (String fileName : fileNames) {
+            files.add(getSampleFile(fileName));
+        }
+        return args(files);
+    }
+
+    static JadxArgs args(List<File> files) {
+        JadxArgs args = new JadxArgs();
+        args.getInputFiles().addAll(files);
+        args.setSkipResources(true);
+        args.setDisabledPlugins(Set.of(GoogleHelpersPlugin.PLUGIN_ID));
+        return args;
+    }
+
+    static JadxDecompiler load(String... fileNames) throws URISyntaxException {
+        return load(args(fileNames));
+    }
+
+    static JadxDecompiler load(JadxArgs args) {
+        JadxDecompiler jadx = new JadxDecompiler(args);
+        jadx.load();
+        return jadx;
+    }
+
+    static ClassNode getClass(JadxDecompiler jadx, String rawName) {
+        ClassNode cls = jadx.getRoot().resolveRawClass(rawName);
+        assertThat(cls).as(rawName).isNotNull();
+        return cls;
+    }
+
+    static MethodNode getMethod(ClassNode cls, String name) {
+        for (MethodNode mth : cls.getMethods()) {
+            if (mth.getMethodInfo().getName().equals(name)) {
+                return mth;
+            }
+        }
+        throw new AssertionError("method " + name + " not found in " + cls);
+    }
+
+    static File getSampleFile(String fileName) throws URISyntaxException {
+        URL file = SmaliSamples.class.getClassLoader().getResource("samples/" + fileName);
+        assertThat(file).as(fileName).isNotNull();
+        return new File(file.toURI());
+    }
+}
@@ -0,0 +1,82 @@
+package jadx.plugins.googlehelpers;
+
+import jadx.api.JadxDecompiler;
+import jadx.core.dex.instructions.InvokeNode;
+import jadx.core.dex.nodes.ClassNode;
+import jadx.core.dex.nodes.InsnNode;
+import jadx.core.dex.nodes.MethodNode;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StringArgResolverTest {
+    private static JadxDecompiler jadx;
+    private static ClassNode cls;
+
+    @BeforeAll
+    static void load() throws Exception {
+        jadx = SmaliSamples.load("string-args.smali");
+        cls = SmaliSamples.getClass(jadx, "strargs.Args");
+    }
+
+    @AfterAll
+    static void close() {
+        jadx.close();
+    }
+
+    @Test
+    public void lastAssignment() throws Exception {
+        assertThat(resolveLogArg("straight")).isEqualTo("B");
+    }
+
+    @Test
+    public void parameterUnresolved() throws Exception {
+        assertThat(resolveLogArg("parameter")).isNull();
+    }
+
+    @Test
+    public void differentValuesOnBranches() throws Exception {
+        assertThat(resolveLogArg("branch")).isNull();
+    }
+
+    @Test
+    public void sameValueOnBranches() throws Exception {
+        assertThat(resolveLogArg("branchSame")).isEqualTo("A");
+        assertThat(resolveLogArg("branchMove")).isEqualTo("A");
+    }
+
+    @Test
+    public void assignmentAcrossBackEdge() throws Exception {
+        // "B" is before the call in code order, but the first iteration logs "A"
+        assertThat(resolveLogArg("loopBackEdge")).isNull();
+    }
+
+    @Test
+    public void loopWithoutAssignment() throws Exception {
+        assertThat(resolveLogArg("loopInvariant")).isEqualTo("A");
+    }
+
+    @Test
+    public void exceptionHandlerPath() throws Exception {
+        // handler is entered before or after "B" is assigned
+        assertThat(resolveLogArg("tryCatch")).isNull();
+    }
+
+    private static String resolveLogArg(String mthName) throws Exception {
+        MethodNode mth = SmaliSamples.getMethod(cls, mthName);
+        mth.load();
+        InsnNode[] insns = mth.getInstructions();
+        StringArgResolver resolver = StringArgResolver.forMethod(mth, insns);
+        for (int i = 0; i < insns.length; i++) {
+            if (insns[i] instanceof InvokeNode) {
+                InvokeNode inv = (InvokeNode) insns[i];
+                if (inv.getCallMth().getName().equals("log")) {
+                    return resolver.resolve(inv, 0, i);
+                }
+            }
+        }
+        throw new AssertionError("no log call in " + mthName);
+    }
+}